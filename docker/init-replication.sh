@@ -0,0 +1,4 @@
+#!/bin/sh
+# runs once, when docker-entrypoint.sh initializes the db volume: lets
+# db-replica (docker-compose.yml) connect for streaming replication
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
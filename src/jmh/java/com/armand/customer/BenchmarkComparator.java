@@ -0,0 +1,88 @@
+package com.armand.customer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exits with status 1 when a benchmark is slower than the baseline by more
+ * than the threshold (default 10%) and the error margins of both runs.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.mainClass=com.armand.customer.BenchmarkComparator \
+ *     -Dbenchmark.args="src/jmh/baseline.json target/jmh/results.json 10"
+ * </pre>
+ */
+public final class BenchmarkComparator {
+
+    private BenchmarkComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparator <baseline.json> <current.json> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s%n", entry.getKey());
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double baselineScore = score(before);
+            double currentScore = score(after);
+            // throughput is better when higher, every other mode measures time
+            boolean higherIsBetter = after.path("mode").asText().equals("thrpt");
+            double change = (currentScore - baselineScore) / baselineScore;
+            double slowdown = higherIsBetter ? -change : change;
+            double margin = error(before) + error(after);
+            boolean regression = slowdown > threshold && Math.abs(currentScore - baselineScore) > margin;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s: %.3f -> %.3f %s (%+.1f%%)%n",
+                    regression ? "REGRESSION" : "OK",
+                    entry.getKey(),
+                    baselineScore,
+                    currentScore,
+                    after.path("primaryMetric").path("scoreUnit").asText(),
+                    change * 100);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("MISSING    %s%n", key));
+
+        System.out.printf("%s regression(s) over %.0f%%%n", regressions, threshold * 100);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new TreeMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new LinkedHashMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String key = "%s %s threads=%s".formatted(result.path("benchmark").asText(), params, result.path("threads").asInt());
+            results.put(key, result);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,35 @@
+package com.armand.customer;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+
+// benchmark.jdbc-url, or a Testcontainers postgres started once per benchmark jvm
+final class BenchmarkDatabase {
+
+    private static PostgreSQLContainer<?> container;
+
+    private BenchmarkDatabase() {
+    }
+
+    static synchronized Map<String, Object> dataSourceProperties() {
+        String jdbcUrl = System.getProperty("benchmark.jdbc-url");
+        if (jdbcUrl != null) {
+            return Map.of(
+                    "spring.datasource.url", jdbcUrl,
+                    "spring.datasource.username", System.getProperty("benchmark.username", "armand"),
+                    "spring.datasource.password", System.getProperty("benchmark.password", "password"));
+        }
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:latest")
+                    .withDatabaseName("customer-benchmark")
+                    .withUsername("armand")
+                    .withPassword("password");
+            container.start();
+        }
+        return Map.of(
+                "spring.datasource.url", container.getJdbcUrl(),
+                "spring.datasource.username", container.getUsername(),
+                "spring.datasource.password", container.getPassword());
+    }
+}
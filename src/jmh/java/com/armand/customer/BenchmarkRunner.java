@@ -0,0 +1,64 @@
+package com.armand.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks once per thread count into one JSON file for
+ * {@link BenchmarkComparator}.
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.jvmArgs="-Dbenchmark.threads=1,4,16 -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/customer_benchmark" \
+ *     -Dbenchmark.args="CustomerDaoBenchmark -p tableSize=1000"
+ * </pre>
+ * Arguments are JMH options. {@code benchmark.output} defaults to
+ * target/jmh/results.json, and every {@code benchmark.*} property reaches the forks.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        List<Integer> threadCounts = Arrays.stream(System.getProperty("benchmark.threads", "1,4,16").split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+        Path output = Path.of(System.getProperty("benchmark.output", "target/jmh/results.json")).toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        String[] forwardedProperties = System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("benchmark."))
+                .map(name -> "-D" + name + "=" + System.getProperty(name))
+                .toArray(String[]::new);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ArrayNode merged = objectMapper.createArrayNode();
+        for (int threads : threadCounts) {
+            Path result = output.resolveSibling("results-" + threads + "-threads.json");
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .jvmArgsAppend(forwardedProperties)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(result.toString());
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(CustomerDaoBenchmark.class.getSimpleName());
+            }
+            new Runner(options.build()).run();
+            merged.addAll((ArrayNode) objectMapper.readTree(result.toFile()));
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), merged);
+        System.out.println("results written to " + output);
+    }
+}
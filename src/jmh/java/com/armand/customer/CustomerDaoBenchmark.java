@@ -0,0 +1,129 @@
+package com.armand.customer;
+
+import com.armand.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// the undecorated daos over tableSize customers, inserts grow the table for the rest of the trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerDaoBenchmark {
+
+    private static final int SEED_CHUNK_SIZE = 10_000;
+
+    @Param({"jdbc", "jpa", "list", "offheap"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private CustomerDao customerDao;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>(BenchmarkDatabase.dataSourceProperties());
+        properties.put("spring.main.web-application-type", "none");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "warn");
+        // command line arguments, so they win over application.yaml
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(Main.class).run(args);
+        customerDao = context.getBean(implementation, CustomerDao.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Customer> selectCustomerById() {
+        return customerDao.selectCustomerById(randomId());
+    }
+
+    @Benchmark
+    public List<Customer> selectAllCustomers() {
+        return customerDao.selectAllCustomers();
+    }
+
+    @Benchmark
+    public void insertCustomer() {
+        long n = sequence.incrementAndGet();
+        customerDao.insertCustomer(new Customer("Inserted " + n, "inserted." + n + "@benchmark.com", 30));
+    }
+
+    @Benchmark
+    public boolean existsCustomerWithEmail() {
+        return customerDao.existsCustomerWithEmail(email(randomId()));
+    }
+
+    @Benchmark
+    public Optional<Customer> updateCustomer() {
+        return customerDao.updateCustomer(new Customer(randomId(), "Updated " + sequence.incrementAndGet(), null, null));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        if (implementation.equals("jdbc") || implementation.equals("jpa")) {
+            jdbcTemplate.execute("TRUNCATE customer RESTART IDENTITY");
+            // explicit ids, randomId expects 1..tableSize
+            jdbcTemplate.update(
+                    """
+                    INSERT INTO customer (id, name, email, age)
+                    SELECT i, 'Customer ' || i, 'customer.' || i || '@benchmark.com', 18 + i % 80
+                    FROM generate_series(1, ?) i
+                    """,
+                    tableSize);
+            jdbcTemplate.queryForObject("SELECT setval('customer_id_seq', ?)", Long.class, tableSize);
+            jdbcTemplate.execute("ANALYZE customer");
+            return;
+        }
+        for (int from = 1; from <= tableSize; from += SEED_CHUNK_SIZE) {
+            List<Customer> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+            for (int i = from; i < from + SEED_CHUNK_SIZE && i <= tableSize; i++) {
+                chunk.add(new Customer("Customer " + i, email(i), 18 + i % 80));
+            }
+            customerDao.insertCustomers(chunk);
+        }
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, tableSize + 1);
+    }
+
+    private static String email(int i) {
+        return "customer." + i + "@benchmark.com";
+    }
+}
@@ -0,0 +1,103 @@
+package com.armand.customer;
+
+import com.armand.FlywayConfig;
+import com.armand.Main;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// one thread only, every invocation starts from an empty table
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CustomerJpaInsertBenchmark {
+
+    @Param({"1", "50"})
+    public int idBlockSize;
+
+    @Param({"100000"})
+    public int customers;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private JdbcTemplate jdbcTemplate;
+    private List<Customer> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>(BenchmarkDatabase.dataSourceProperties());
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                (String) properties.get("spring.datasource.url"),
+                (String) properties.get("spring.datasource.username"),
+                (String) properties.get("spring.datasource.password"));
+        Flyway.configure()
+                .dataSource(dataSource)
+                .configuration(FlywayConfig.SESSION_LOCK)
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        properties.put("spring.main.web-application-type", "none");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "warn");
+        properties.put("spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", "true");
+        properties.put("spring.jpa.properties." + CustomerIdGenerator.BLOCK_SIZE, idBlockSize);
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(Main.class).run(args);
+        customerRepository = context.getBean(CustomerRepository.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        jdbcTemplate.execute("TRUNCATE customer");
+        // persisting assigns ids, so every invocation gets new instances
+        batch = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            batch.add(new Customer("Customer " + i, "customer." + i + "@benchmark.com", 18 + i % 80));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        jdbcTemplate.execute("TRUNCATE customer");
+    }
+
+    @Benchmark
+    public List<Customer> saveAll() {
+        return customerRepository.saveAll(batch);
+    }
+
+    @Benchmark
+    public List<Customer> persistInChunks() {
+        customerRepository.persistInChunks(batch);
+        return batch;
+    }
+}
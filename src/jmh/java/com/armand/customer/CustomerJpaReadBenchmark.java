@@ -0,0 +1,97 @@
+package com.armand.customer;
+
+import com.armand.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// run with -prof gc for the bytes allocated per read (gc.alloc.rate.norm)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerJpaReadBenchmark {
+
+    @Param({"1000", "100000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>(BenchmarkDatabase.dataSourceProperties());
+        properties.put("spring.main.web-application-type", "none");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "warn");
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        context = new SpringApplicationBuilder(Main.class).run(args);
+        customerRepository = context.getBean(CustomerRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("TRUNCATE customer");
+        jdbcTemplate.update(
+                """
+                INSERT INTO customer (id, name, email, age)
+                SELECT i, 'Customer ' || i, 'customer.' || i || '@benchmark.com', 18 + i % 80
+                FROM generate_series(1, ?) i
+                """,
+                tableSize);
+        jdbcTemplate.queryForObject("SELECT setval('customer_id_seq', ?)", Long.class, tableSize);
+        jdbcTemplate.execute("ANALYZE customer");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Customer> findAll() {
+        return customerRepository.findAll();
+    }
+
+    @Benchmark
+    public List<CustomerView> findAllViews() {
+        return customerRepository.findAllViews();
+    }
+
+    @Benchmark
+    public Optional<Customer> findById() {
+        return customerRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<CustomerView> findViewById() {
+        return customerRepository.findViewById(randomId());
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, tableSize + 1);
+    }
+}
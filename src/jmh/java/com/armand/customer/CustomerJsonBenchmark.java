@@ -0,0 +1,131 @@
+package com.armand.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// the paths that use CustomerJson, through the ObjectMapper and through the pre-built readers and writers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    private static final TypeReference<List<CustomerRegistrationRequest>> REGISTRATION_LIST =
+            new TypeReference<>() {};
+
+    private ObjectMapper objectMapper;
+    private CustomerJson customerJson;
+    private CustomerRegistrationRequest registration;
+    private CustomerUpdateRequest update;
+
+    @Setup
+    public void setUp() {
+        // configured like the one spring boot creates
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        customerJson = new CustomerJson(objectMapper);
+        registration = new CustomerRegistrationRequest("Jamila", "jamila@email.com", 19);
+        update = new CustomerUpdateRequest("Jamila", null, 20);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Customers {
+
+        @Param({"1", "100", "1000"})
+        public int size;
+
+        private List<Customer> customers;
+        private byte[] registrations;
+
+        @Setup
+        public void setUp() throws JsonProcessingException {
+            customers = IntStream.rangeClosed(1, size)
+                    .mapToObj(i -> new Customer(i, "Customer " + i, "customer." + i + "@example.com", 18 + i % 80))
+                    .toList();
+            registrations = Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(customers.stream()
+                    .map(c -> new CustomerRegistrationRequest(c.getName(), c.getEmail(), c.getAge()))
+                    .toList());
+        }
+    }
+
+    @Benchmark
+    public byte[] exportCustomersWithObjectMapper(Customers customers) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Customer customer : customers.customers) {
+            out.write(objectMapper.writeValueAsBytes(customer));
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] exportCustomersWithCustomerJson(Customers customers) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SequenceWriter writer = customerJson.customerLineWriter().writeValues(out)) {
+            for (Customer customer : customers.customers) {
+                writer.write(customer);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public void readRegistrationsWithObjectMapper(Customers customers, Blackhole blackhole) throws IOException {
+        for (CustomerRegistrationRequest request : objectMapper.readValue(customers.registrations, REGISTRATION_LIST)) {
+            blackhole.consume(request);
+        }
+    }
+
+    @Benchmark
+    public void readRegistrationsWithCustomerJson(Customers customers, Blackhole blackhole) throws IOException {
+        try (MappingIterator<CustomerRegistrationRequest> requests =
+                     customerJson.registrationReader().readValues(customers.registrations)) {
+            while (requests.hasNext()) {
+                blackhole.consume(requests.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] writeRegistrationWithObjectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(registration);
+    }
+
+    @Benchmark
+    public byte[] writeRegistrationWithCustomerJson() throws JsonProcessingException {
+        return customerJson.registrationWriter().writeValueAsBytes(registration);
+    }
+
+    @Benchmark
+    public byte[] writeUpdateWithObjectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(update);
+    }
+
+    @Benchmark
+    public byte[] writeUpdateWithCustomerJson() throws JsonProcessingException {
+        return customerJson.updateWriter().writeValueAsBytes(update);
+    }
+}
@@ -0,0 +1,114 @@
+package com.armand.customer;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap and GC cost of holding many customers in the list or offheap dao. Not
+ * a JMH benchmark, run it in a JVM of its own per store:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.mainClass=com.armand.customer.CustomerStoreFootprint \
+ *     -Dbenchmark.jvmArgs="-Xmx4g -XX:+UseG1GC -XX:ActiveProcessorCount=1" \
+ *     -Dbenchmark.args="offheap 10000000"
+ * </pre>
+ * Arguments: the implementation, the customers (default 10M) and the id and
+ * email lookups (default 2M each).
+ */
+public final class CustomerStoreFootprint {
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private CustomerStoreFootprint() {
+    }
+
+    public static void main(String[] args) {
+        String implementation = args.length > 0 ? args[0] : "offheap";
+        int customers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+        CustomerDao customerDao = switch (implementation) {
+            case "list" -> new CustomerListDataAccessService();
+            case "offheap" -> new CustomerOffHeapDataAccessService();
+            default -> throw new IllegalArgumentException("list or offheap, not " + implementation);
+        };
+
+        GcTotals beforeLoad = GcTotals.now();
+        long start = System.nanoTime();
+        for (int from = 0; from < customers; from += CHUNK_SIZE) {
+            List<Customer> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < from + CHUNK_SIZE && i < customers; i++) {
+                chunk.add(new Customer("Customer " + i, email(i), 18 + i % 80));
+            }
+            customerDao.insertCustomers(chunk);
+        }
+        long loadNanos = System.nanoTime() - start;
+        GcTotals load = GcTotals.now().minus(beforeLoad);
+
+        start = System.nanoTime();
+        System.gc();
+        long fullGcNanos = System.nanoTime() - start;
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (customerDao.selectCustomerById(random.nextInt(1, customers + 1)).isPresent()) {
+                found++;
+            }
+            if (customerDao.existsCustomerWithEmail(email(random.nextInt(customers)))) {
+                found++;
+            }
+        }
+        long lookupNanos = System.nanoTime() - start;
+
+        System.out.printf("%s, %,d customers%n", implementation, customers);
+        System.out.printf("  load                %,d ms%n", millis(loadNanos));
+        System.out.printf("  gc during load      %,d collections, %,d ms%n", load.collections(), load.millis());
+        System.out.printf("  heap after full gc  %,d MB%n", heapUsed >> 20);
+        System.out.printf("  off-heap            %,d MB%n", directMemoryUsed() >> 20);
+        System.out.printf("  full gc, store live %,d ms%n", millis(fullGcNanos));
+        System.out.printf("  %,d id + %,d email lookups  %,d ms (%,d found)%n",
+                lookups, lookups, millis(lookupNanos), found);
+        // the store has to be live through the full gc and the lookups
+        Reference.reachabilityFence(customerDao);
+    }
+
+    private static String email(int i) {
+        return "customer." + i + "@footprint.com";
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static long directMemoryUsed() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private record GcTotals(long collections, long millis) {
+
+        static GcTotals now() {
+            long collections = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                collections += Math.max(collector.getCollectionCount(), 0);
+                millis += Math.max(collector.getCollectionTime(), 0);
+            }
+            return new GcTotals(collections, millis);
+        }
+
+        GcTotals minus(GcTotals earlier) {
+            return new GcTotals(collections - earlier.collections, millis - earlier.millis);
+        }
+    }
+}
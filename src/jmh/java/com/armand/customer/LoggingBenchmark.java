@@ -0,0 +1,121 @@
+package com.armand.customer;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.armand.logging.SamplingFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// println against the async appender, sampled, unsampled and disabled, both writing to /dev/null unbuffered
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String DEV_NULL = "/dev/null";
+    private static final Integer[] CUSTOMER_IDS = IntStream.range(0, 1024).boxed().toArray(Integer[]::new);
+
+    private LoggerContext loggerContext;
+    private PrintStream console;
+    private Logger unsampledLogger;
+    private Logger sampledLogger;
+    private Logger disabledLogger;
+
+    @Setup
+    public void setUp() throws IOException {
+        console = new PrintStream(new FileOutputStream(DEV_NULL), true);
+        loggerContext = new LoggerContext();
+        unsampledLogger = logger("unsampled", Level.DEBUG, 1.0);
+        sampledLogger = logger("sampled", Level.DEBUG, 0.01);
+        disabledLogger = logger("disabled", Level.INFO, 1.0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public void systemOut() {
+        int result = 1;
+        console.println("deleteCustomerById result = " + result + " id " + customerId());
+    }
+
+    @Benchmark
+    public void unsampledAsyncAppender() {
+        unsampledLogger.debug("customer deleted id={} rows={}", customerId(), 1);
+    }
+
+    @Benchmark
+    public void sampledAsyncAppender() {
+        sampledLogger.debug("customer deleted id={} rows={}", customerId(), 1);
+    }
+
+    @Benchmark
+    public void disabledLevel() {
+        disabledLogger.debug("customer deleted id={} rows={}", customerId(), 1);
+    }
+
+    // ids arrive boxed in the dao, so boxing is not part of the measured cost
+    private static Integer customerId() {
+        return CUSTOMER_IDS[ThreadLocalRandom.current().nextInt(CUSTOMER_IDS.length)];
+    }
+
+    private Logger logger(String name, Level level, double samplingRate) throws IOException {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5p [%t] %logger : %m%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(loggerContext);
+        output.setEncoder(encoder);
+        output.setOutputStream(new FileOutputStream(DEV_NULL));
+        output.start();
+
+        SamplingFilter sampling = new SamplingFilter();
+        sampling.setContext(loggerContext);
+        sampling.setRate(samplingRate);
+        sampling.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addFilter(sampling);
+        async.addAppender(output);
+        async.start();
+
+        Logger logger = loggerContext.getLogger(name);
+        logger.setLevel(level);
+        logger.setAdditive(false);
+        logger.addAppender(async);
+        return logger;
+    }
+}
@@ -0,0 +1,65 @@
+package com.armand.customer;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// the timers on an in-memory lookup by id, with and without the percentile histogram
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeteredCustomerDaoBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+
+    private CustomerDao plain;
+    private CustomerDao metered;
+    private CustomerDao meteredWithHistogram;
+
+    @Setup
+    public void setUp() {
+        plain = new CustomerListDataAccessService();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            plain.insertCustomer(new Customer("Customer " + i, "customer." + i + "@example.com", 18 + i % 80));
+        }
+        metered = new MeteredCustomerDao(
+                plain, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), "list", false);
+        meteredWithHistogram = new MeteredCustomerDao(
+                plain, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), "list", true);
+    }
+
+    @Benchmark
+    public Optional<Customer> plain() {
+        return plain.selectCustomerById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Customer> metered() {
+        return metered.selectCustomerById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Customer> meteredWithHistogram() {
+        return meteredWithHistogram.selectCustomerById(randomId());
+    }
+
+    private static int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, CUSTOMERS + 1);
+    }
+}
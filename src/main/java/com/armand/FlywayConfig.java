@@ -0,0 +1,19 @@
+package com.armand;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class FlywayConfig {
+
+    // a lock taken inside a transaction would make CREATE INDEX CONCURRENTLY wait forever
+    public static final Map<String, String> SESSION_LOCK = Map.of("flyway.postgresql.transactional.lock", "false");
+
+    @Bean
+    FlywayConfigurationCustomizer sessionLockFlywayCustomizer() {
+        return configuration -> configuration.configuration(SESSION_LOCK);
+    }
+}
@@ -1,38 +1,40 @@
 package com.armand;
 
-import com.armand.customer.Customer;
-import com.armand.customer.CustomerRepository;
-import com.github.javafaker.Faker;
-import com.github.javafaker.Name;
+import com.armand.customer.CustomerImportResult;
+import com.armand.customer.CustomerImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 
-import java.util.Random;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @SpringBootApplication
 public class Main {
 
+    private static final Logger log = LoggerFactory.getLogger(Main.class);
+
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
     }
 
+    // CLI import: java -jar app.jar --customer.import.file=customers.csv --spring.main.web-application-type=none
     @Bean
-    CommandLineRunner commandLineRunner(CustomerRepository customerRepository) {
+    @ConditionalOnProperty("customer.import.file")
+    CommandLineRunner customerImportRunner(
+            CustomerImportService customerImportService,
+            @Value("${customer.import.file}") Path file) {
         return args -> {
-            var faker = new Faker();
-            Random random = new Random();
-            Name name = faker.name();
-            String firstName = name.firstName();
-            String lastName = name.lastName();
-            String fullName = firstName + " " + lastName;
-            var email = firstName.toLowerCase() + "." + lastName.toLowerCase() + "@example.com";
-            var age = random.nextInt(16, 99);
-            Customer customer = new Customer(
-                    fullName, email, age);
-
-            customerRepository.save(customer);
+            try (InputStream csv = Files.newInputStream(file)) {
+                CustomerImportResult result = customerImportService.importCsv(csv);
+                log.info("imported {}: {}", file, result);
+            }
         };
     }
 }
@@ -0,0 +1,161 @@
+package com.armand.customer;
+
+import com.armand.routing.DataSourceRoute;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// writes made around this dao (csv import, other instances) are only seen once their entries expire
+public class CachingCustomerDao extends ForwardingCustomerDao {
+
+    private final Cache<Integer, Optional<Customer>> customersById;
+    private final boolean cacheMissing;
+
+    public CachingCustomerDao(
+            CustomerDao delegate,
+            long maximumSize,
+            Duration expireAfterWrite,
+            boolean cacheMissing,
+            Duration missingExpireAfterWrite) {
+        super(delegate);
+        this.cacheMissing = cacheMissing;
+        this.customersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new CustomerExpiry(expireAfterWrite, missingExpireAfterWrite))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        // concurrent misses on the same id wait for a single load
+        Optional<Customer> customer = customersById.get(id, key -> {
+            // from the primary, a row read from a lagging replica right after a write would stay cached
+            try (DataSourceRoute.Scope ignored = DataSourceRoute.pinnedToPrimary()) {
+                Optional<Customer> loaded = delegate.selectCustomerById(key);
+                return loaded.isPresent() || cacheMissing ? loaded : null;
+            }
+        });
+        if (customer == null) {
+            return Optional.empty();
+        }
+        // Customer is mutable, never hand out the cached instance
+        return customer.map(CachingCustomerDao::copy);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        delegate.insertCustomer(customer);
+        invalidate(customer.getId());
+    }
+
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        Optional<Integer> id = delegate.insertIfEmailAbsent(customer);
+        id.ifPresent(customersById::invalidate);
+        return id;
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        Set<String> inserted = delegate.insertCustomers(customers);
+        if (customers.stream().anyMatch(customer -> customer.getId() == null)) {
+            invalidateMissing();
+        }
+        customers.forEach(customer -> invalidate(customer.getId()));
+        return inserted;
+    }
+
+    @Override
+    public boolean deleteCustomerById(Integer customerId) {
+        try {
+            return delegate.deleteCustomerById(customerId);
+        } finally {
+            invalidate(customerId);
+        }
+    }
+
+    @Override
+    public Optional<Customer> updateCustomer(Customer update) {
+        try {
+            return delegate.updateCustomer(update);
+        } finally {
+            invalidate(update.getId());
+        }
+    }
+
+    @Override
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        try {
+            return delegate.adjustCustomersAge(ids, delta);
+        } finally {
+            customersById.invalidateAll(ids);
+        }
+    }
+
+    public CacheStats stats() {
+        return customersById.stats();
+    }
+
+    public long estimatedSize() {
+        return customersById.estimatedSize();
+    }
+
+    Cache<Integer, Optional<Customer>> cache() {
+        return customersById;
+    }
+
+    private void invalidate(Integer id) {
+        if (id != null) {
+            customersById.invalidate(id);
+        } else {
+            invalidateMissing();
+        }
+    }
+
+    // the generated id is not known, any cached missing id could be it
+    private void invalidateMissing() {
+        if (cacheMissing) {
+            customersById.asMap().values().removeIf(Optional::isEmpty);
+        }
+    }
+
+    private static Customer copy(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+    }
+
+    private static final class CustomerExpiry implements Expiry<Integer, Optional<Customer>> {
+
+        private final long presentNanos;
+        private final long missingNanos;
+
+        private CustomerExpiry(Duration expireAfterWrite, Duration missingExpireAfterWrite) {
+            this.presentNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+            this.missingNanos = Math.min(missingExpireAfterWrite.toNanos(), presentNanos);
+        }
+
+        @Override
+        public long expireAfterCreate(Integer id, Optional<Customer> customer, long currentTime) {
+            return customer.isPresent() ? presentNanos : missingNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                Integer id, Optional<Customer> customer, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, customer, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                Integer id, Optional<Customer> customer, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -3,11 +3,10 @@ package com.armand.customer;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.GenericGenerator;
 
 import java.util.Objects;
 
@@ -23,15 +22,8 @@ import java.util.Objects;
 )
 public class Customer {
     @Id
-    @SequenceGenerator(
-            name = "customer_id_seq",
-            sequenceName = "customer_id_seq",
-            allocationSize = 1
-    )
-    @GeneratedValue(
-            strategy = GenerationType.SEQUENCE,
-            generator = "customer_id_seq"
-    )
+    @GeneratedValue(generator = "customer_id")
+    @GenericGenerator(name = "customer_id", type = CustomerIdGenerator.class)
     private Integer id;
 
     @Column(
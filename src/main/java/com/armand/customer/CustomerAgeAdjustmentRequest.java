@@ -0,0 +1,7 @@
+package com.armand.customer;
+
+import java.util.List;
+
+public record CustomerAgeAdjustmentRequest(
+        List<Integer> ids,
+        Integer delta) {}
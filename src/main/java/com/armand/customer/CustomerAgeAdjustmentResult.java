@@ -0,0 +1,4 @@
+package com.armand.customer;
+
+public record CustomerAgeAdjustmentResult(
+        int updated) {}
@@ -0,0 +1,40 @@
+package com.armand.customer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// a snapshot taken during writes may be off by the writes in flight
+final class CustomerAgeCounts {
+
+    private final LongAdder[] buckets = new LongAdder[CustomerStats.BUCKETS];
+
+    CustomerAgeCounts() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void added(int age) {
+        buckets[CustomerStats.bucket(age)].increment();
+    }
+
+    void removed(int age) {
+        buckets[CustomerStats.bucket(age)].decrement();
+    }
+
+    void changed(int previousAge, int age) {
+        int previous = CustomerStats.bucket(previousAge);
+        int current = CustomerStats.bucket(age);
+        if (previous != current) {
+            buckets[previous].decrement();
+            buckets[current].increment();
+        }
+    }
+
+    CustomerStats stats() {
+        long[] customers = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            customers[i] = buckets[i].sum();
+        }
+        return CustomerStats.of(customers);
+    }
+}
@@ -0,0 +1,16 @@
+package com.armand.customer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public interface CustomerBulkRepository {
+
+    // one transaction, cleared after every jdbc batch. a taken email fails all of it
+    void persistInChunks(List<Customer> customers);
+
+    Set<String> insertAllIfEmailAbsent(List<Customer> customers);
+
+    // the returned customer is detached, empty when there is no such customer or nothing differs
+    Optional<Customer> updateChangedColumns(Customer update);
+}
@@ -0,0 +1,67 @@
+package com.armand.customer;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+class CustomerBulkRepositoryImpl implements CustomerBulkRepository {
+
+    private static final int DEFAULT_CHUNK_SIZE = 50;
+
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    CustomerBulkRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        // one flush per hibernate.jdbc.batch_size, so every flush sends full batches
+        int batchSize = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getSessionFactoryOptions()
+                .getJdbcBatchSize();
+        this.chunkSize = batchSize > 1 ? batchSize : DEFAULT_CHUNK_SIZE;
+    }
+
+    @Override
+    @Transactional
+    public void persistInChunks(List<Customer> customers) {
+        for (int i = 0; i < customers.size(); i++) {
+            entityManager.persist(customers.get(i));
+            if ((i + 1) % chunkSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional
+    public Set<String> insertAllIfEmailAbsent(List<Customer> customers) {
+        // pending persists have to be in the table for ON CONFLICT to see them
+        entityManager.flush();
+        Session session = entityManager.unwrap(Session.class);
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < customers.size(); from += chunkSize) {
+            List<Customer> chunk = customers.subList(from, Math.min(from + chunkSize, customers.size()));
+            inserted.addAll(session.doReturningWork(connection ->
+                    CustomerInsertSql.insertAbsent(connection, chunk)));
+        }
+        return inserted;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Customer> updateChangedColumns(Customer update) {
+        // pending writes have to be in the table before the update reads it
+        entityManager.flush();
+        return entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> CustomerUpdateSql.update(connection, update));
+    }
+}
@@ -1,5 +1,13 @@
 package com.armand.customer;
 
+import com.armand.exception.RequestValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -7,24 +15,103 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
 @RestController
 @RequestMapping("api/v1/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
+    private final CustomerJson customerJson;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(
+            CustomerService customerService,
+            CustomerImportService customerImportService,
+            CustomerJson customerJson) {
         this.customerService = customerService;
+        this.customerImportService = customerImportService;
+        this.customerJson = customerJson;
     }
 
     @GetMapping
-    public List<Customer> getCustomers() {
+    public List<Customer> getCustomers(
+            @RequestParam(value = "minAge", required = false)
+            Integer minAge,
+            @RequestParam(value = "maxAge", required = false)
+            Integer maxAge,
+            @RequestParam(value = "sort", required = false)
+            String sort,
+            @RequestParam(value = "limit", required = false)
+            Integer limit) {
 
-        return customerService.getAllCustomers();
+        if (minAge == null && maxAge == null && sort == null && limit == null) {
+            return customerService.getAllCustomers();
+        }
+        return customerService.queryCustomers(minAge, maxAge, sort, limit);
+    }
+
+    @GetMapping("page")
+    public ResponseEntity<CustomerPage> getCustomersPage(
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            Integer size) {
+
+        CustomerPage page = customerService.getCustomersPage(cursor, size);
+        if (page.nextCursor() == null) {
+            return ResponseEntity.ok(page);
+        }
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", page.nextCursor())
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next))
+                .body(page);
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportCustomers() {
+        // a failed write (client gone) aborts the export, which closes the database cursor
+        return outputStream -> {
+            try (SequenceWriter writer = customerJson.customerLineWriter().writeValues(outputStream)) {
+                customerService.exportCustomers(customer -> {
+                    try {
+                        writer.write(customer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                outputStream.write('\n');
+            }
+        };
+    }
+
+    @GetMapping("stats")
+    public CustomerStats getCustomerStats() {
+
+        return customerService.getCustomerStats();
+    }
+
+    @GetMapping("search")
+    public List<Customer> searchCustomers(
+            @RequestParam("q")
+            String query,
+            @RequestParam(value = "limit", required = false)
+            Integer limit) {
+
+        return customerService.searchCustomers(query, limit);
     }
 
     @GetMapping("{customerId}")
@@ -36,10 +123,47 @@ public class CustomerController {
     }
 
     @PostMapping
-    public void registerCustomer(
+    public ResponseEntity<Void> registerCustomer(
             @RequestBody
             CustomerRegistrationRequest request) {
-        customerService.addCustomer(request);
+        Integer id = customerService.addCustomer(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{customerId}")
+                .buildAndExpand(id)
+                .toUri();
+        return ResponseEntity.ok().location(location).build();
+    }
+
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<CustomerBatchResult> registerCustomers(InputStream body) throws IOException {
+        // the array is read element by element instead of being bound to a List up front
+        try (MappingIterator<CustomerRegistrationRequest> requests = customerJson.registrationReader().readValues(body)) {
+            return customerService.addCustomers(requests);
+        } catch (JsonProcessingException e) {
+            throw malformedBatch(e);
+        } catch (RuntimeException e) {
+            // MappingIterator wraps what it fails to read in unchecked exceptions
+            if (e.getCause() instanceof JsonProcessingException cause) {
+                throw malformedBatch(cause);
+            }
+            throw e;
+        }
+    }
+
+    private static RequestValidationException malformedBatch(JsonProcessingException e) {
+        return new RequestValidationException("malformed customer batch: " + e.getOriginalMessage());
+    }
+
+    @PostMapping(value = "import", consumes = "text/csv")
+    public CustomerImportResult importCustomers(InputStream body) {
+        return customerImportService.importCsv(body);
+    }
+
+    @PostMapping(value = "age-adjustments", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CustomerAgeAdjustmentResult adjustCustomersAge(
+            @RequestBody
+            CustomerAgeAdjustmentRequest request) {
+        return customerService.adjustCustomersAge(request);
     }
 
     @DeleteMapping("{customerId}")
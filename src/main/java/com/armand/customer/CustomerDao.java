@@ -1,20 +1,46 @@
 package com.armand.customer;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface CustomerDao {
     List<Customer> selectAllCustomers();
 
+    List<Customer> selectCustomersAfter(Integer lastId, int limit);
+
+    // holds database resources, the caller must close the stream
+    Stream<Customer> streamAllCustomers();
+
+    List<Customer> selectCustomers(CustomerQuery query);
+
     Optional<Customer> selectCustomerById(Integer id);
 
+    List<Customer> searchCustomers(String query, int limit);
+
+    CustomerStats selectCustomerStats();
+
     void insertCustomer(Customer customer);
 
+    // atomic, empty when the email is taken
+    Optional<Integer> insertIfEmailAbsent(Customer customer);
+
+    // skips customers whose email is taken, returns the emails inserted
+    Set<String> insertCustomers(List<Customer> customers);
+
     boolean existsCustomerWithEmail(String email);
 
+    Set<String> selectExistingEmails(Collection<String> emails);
+
     boolean existsCustomerById(Integer id);
 
-    void deleteCustomerById(Integer customerId);
+    boolean deleteCustomerById(Integer customerId);
+
+    // writes the non-null fields, empty when there is no such customer or nothing differs
+    Optional<Customer> updateCustomer(Customer update);
 
-    void updateCustomer(Customer update);
+    // unknown ids are ignored and repeated ones count once
+    int adjustCustomersAge(Collection<Integer> ids, int delta);
 }
@@ -0,0 +1,47 @@
+package com.armand.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@EnableConfigurationProperties(CustomerDaoProperties.class)
+public class CustomerDaoConfig {
+
+    @Bean
+    @Primary
+    public CustomerDao customerDao(
+            BeanFactory beanFactory,
+            CustomerDaoProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        CustomerDao customerDao = beanFactory.getBean(properties.implementation(), CustomerDao.class);
+
+        // innermost, so the timers measure the implementation and not cache hits
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        CustomerDaoProperties.Metrics metrics = properties.metrics();
+        if (registry != null && metrics.enabled()) {
+            customerDao = new MeteredCustomerDao(
+                    customerDao, registry, properties.implementation(), metrics.percentileHistogram());
+        }
+
+        CustomerDaoProperties.Cache cache = properties.cache();
+        if (cache.enabled()) {
+            customerDao = new CachingCustomerDao(
+                    customerDao,
+                    cache.maximumSize(),
+                    cache.expireAfterWrite(),
+                    cache.cacheMissing(),
+                    cache.missingExpireAfterWrite());
+            if (registry != null) {
+                CaffeineCacheMetrics.monitor(
+                        registry, ((CachingCustomerDao) customerDao).cache(), "customersById");
+            }
+        }
+        return customerDao;
+    }
+}
@@ -0,0 +1,24 @@
+package com.armand.customer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("customer.dao")
+public record CustomerDaoProperties(
+        @DefaultValue("jdbc") String implementation,
+        @DefaultValue Cache cache,
+        @DefaultValue Metrics metrics) {
+
+    public record Cache(
+            boolean enabled,
+            @DefaultValue("10000") long maximumSize,
+            @DefaultValue("1m") Duration expireAfterWrite,
+            boolean cacheMissing,
+            @DefaultValue("10s") Duration missingExpireAfterWrite) {}
+
+    public record Metrics(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("true") boolean percentileHistogram) {}
+}
@@ -0,0 +1,59 @@
+package com.armand.customer;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+
+// an identity id would turn off insert batching, a larger sequence increment would make column default inserts skip ids
+public class CustomerIdGenerator implements IdentifierGenerator {
+
+    static final String BLOCK_SIZE = "customer.id_block_size";
+
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private final Deque<Integer> ids = new ArrayDeque<>();
+    private String nextIds;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) {
+        int blockSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(BLOCK_SIZE, StandardConverters.INTEGER, DEFAULT_BLOCK_SIZE);
+        nextIds = "SELECT nextval('customer_id_seq') FROM generate_series(1, " + blockSize + ")";
+    }
+
+    @Override
+    public synchronized Object generate(SharedSessionContractImplementor session, Object object) {
+        if (ids.isEmpty()) {
+            fetchIds(session);
+        }
+        return ids.poll();
+    }
+
+    private void fetchIds(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(nextIds);
+        try {
+            ResultSet rs = jdbc.getResultSetReturn().extract(statement);
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "could not take customer ids", nextIds);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.armand.customer;
+
+public record CustomerImportResult(
+        long accepted,
+        long rejected) {}
@@ -0,0 +1,80 @@
+package com.armand.customer;
+
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// COPY into a staging table, then one INSERT of the valid rows. missing fields, bad ages and taken emails are rejected
+@Service
+public class CustomerImportService {
+
+    private static final String CREATE_STAGING_TABLE =
+            """
+            CREATE TEMP TABLE customer_import (
+                name TEXT,
+                email TEXT,
+                age TEXT
+            )
+            """;
+
+    private static final String DROP_STAGING_TABLE = "DROP TABLE IF EXISTS customer_import";
+
+    private static final String COPY_INTO_STAGING_TABLE =
+            """
+            COPY customer_import (name, email, age)
+            FROM STDIN WITH (FORMAT csv, HEADER true)
+            """;
+
+    private static final String MERGE_INTO_CUSTOMER =
+            """
+            INSERT INTO customer (name, email, age)
+            SELECT btrim(name), btrim(email), btrim(age)::int
+            FROM customer_import
+            WHERE btrim(name) <> ''
+              AND btrim(email) <> ''
+              AND btrim(age) ~ '^[0-9]{1,3}$'
+            ON CONFLICT ON CONSTRAINT customer_email_unique DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerImportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public CustomerImportResult importCsv(InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<CustomerImportResult>) connection -> {
+            // temp tables live as long as the (pooled) session, so always start from a clean one
+            execute(connection, DROP_STAGING_TABLE);
+            execute(connection, CREATE_STAGING_TABLE);
+            try {
+                CopyManager copyManager = new CopyManager(connection.unwrap(BaseConnection.class));
+                long staged = copyManager.copyIn(COPY_INTO_STAGING_TABLE, csv);
+                long accepted;
+                try (Statement statement = connection.createStatement()) {
+                    accepted = statement.executeUpdate(MERGE_INTO_CUSTOMER);
+                }
+                return new CustomerImportResult(accepted, staged - accepted);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                execute(connection, DROP_STAGING_TABLE);
+            }
+        });
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
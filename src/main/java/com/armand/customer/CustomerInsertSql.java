@@ -0,0 +1,48 @@
+package com.armand.customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// a whole chunk in one statement, RETURNING tells which emails were not taken
+final class CustomerInsertSql {
+
+    static final String INSERT_ABSENT =
+            """
+            INSERT INTO customer (name, email, age)
+            SELECT * FROM unnest(?::text[], ?::text[], ?::int4[])
+            ON CONFLICT (email) DO NOTHING
+            RETURNING email
+            """;
+
+    private CustomerInsertSql() {
+    }
+
+    static Set<String> insertAbsent(Connection connection, List<Customer> customers) throws SQLException {
+        String[] names = new String[customers.size()];
+        String[] emails = new String[customers.size()];
+        Integer[] ages = new Integer[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            names[i] = customer.getName();
+            emails[i] = customer.getEmail();
+            ages[i] = customer.getAge();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_ABSENT)) {
+            ps.setArray(1, connection.createArrayOf("text", names));
+            ps.setArray(2, connection.createArrayOf("text", emails));
+            ps.setArray(3, connection.createArrayOf("int4", ages));
+            Set<String> inserted = new HashSet<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    inserted.add(rs.getString(1));
+                }
+            }
+            return inserted;
+        }
+    }
+}
@@ -1,14 +1,30 @@
 package com.armand.customer;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDao {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomerJDBCDataAccessService.class);
+
+    // postgres only uses a server side cursor when a fetch size is set inside a transaction
+    static final int STREAM_FETCH_SIZE = 500;
+    // rows per multi-row insert statement (CustomerInsertSql)
+    static final int INSERT_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
 
@@ -29,6 +45,43 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
         return jdbcTemplate.query(sql, customerRowMapper);
     }
 
+    @Override
+    public List<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        var sql =
+                """
+                  SELECT id, name, email, age
+                  FROM customer
+                  WHERE id > ?
+                  ORDER BY id
+                  LIMIT ?
+                """;
+
+        return jdbcTemplate.query(sql, customerRowMapper, lastId, limit);
+    }
+
+    @Override
+    public Stream<Customer> streamAllCustomers() {
+        var sql =
+                """
+                  SELECT id, name, email, age
+                  FROM customer
+                """;
+
+        return jdbcTemplate.queryForStream(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    return statement;
+                },
+                customerRowMapper);
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        return jdbcTemplate.query(
+                CustomerQuerySql.statement(query), customerRowMapper, CustomerQuerySql.arguments(query));
+    }
+
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
         var sql =
@@ -41,6 +94,27 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
         return jdbcTemplate.query(sql, customerRowMapper, id).stream().findFirst();
     }
 
+    @Override
+    public List<Customer> searchCustomers(String query, int limit) {
+        return jdbcTemplate.query(
+                CustomerSearchSql.SEARCH, customerRowMapper, CustomerSearchSql.arguments(query, limit));
+    }
+
+    @Override
+    public CustomerStats selectCustomerStats() {
+        // a few rows per bucket whatever the table size, the triggers of V5 keep them current
+        var sql =
+                """
+                    SELECT bucket, CAST(sum(customers) AS BIGINT)
+                    FROM customer_age_stats
+                    GROUP BY bucket
+                """;
+
+        long[] customers = new long[CustomerStats.BUCKETS];
+        jdbcTemplate.query(sql, (RowCallbackHandler) row -> customers[row.getInt(1)] = row.getLong(2));
+        return CustomerStats.of(customers);
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         var sql =
@@ -50,8 +124,35 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
                 """;
         int result =
                 jdbcTemplate.update(sql, customer.getName(), customer.getEmail(), customer.getAge());
+        log.debug("customer inserted rows={}", result);
+    }
 
-        System.out.println("jdbcTemplate.result = " + result);
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        var sql =
+                """
+                INSERT INTO customer (name, email, age)
+                VALUES (?, ?, ?)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id
+                """;
+        return jdbcTemplate.query(
+                        sql,
+                        (rs, rowNum) -> rs.getInt("id"),
+                        customer.getName(), customer.getEmail(), customer.getAge())
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        Set<String> inserted = new HashSet<>();
+        for (int from = 0; from < customers.size(); from += INSERT_BATCH_SIZE) {
+            List<Customer> chunk = customers.subList(from, Math.min(from + INSERT_BATCH_SIZE, customers.size()));
+            inserted.addAll(jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection ->
+                    CustomerInsertSql.insertAbsent(connection, chunk)));
+        }
+        return inserted;
     }
 
     @Override
@@ -66,6 +167,27 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
         return count != null && count > 0;
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        var sql =
+                """
+                        SELECT email
+                        FROM customer
+                        WHERE email = ANY(?)
+                        """;
+        List<String> existing = jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    statement.setArray(1, connection.createArrayOf("text", emails.toArray()));
+                    return statement;
+                },
+                (rs, rowNum) -> rs.getString("email"));
+        return new HashSet<>(existing);
+    }
+
     @Override
     public boolean existsCustomerById(Integer id) {
         var sql =
@@ -79,7 +201,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
     }
 
     @Override
-    public void deleteCustomerById(Integer customerId) {
+    public boolean deleteCustomerById(Integer customerId) {
         var sql =
                 """
                         DELETE
@@ -87,27 +209,44 @@ public class CustomerJDBCDataAccessService implements CustomerDao {
                         WHERE id = ?
                         """;
         int result = jdbcTemplate.update(sql, customerId);
-        System.out.println("deleteCustomerById result = " + result);
+        log.debug("customer deleted id={} rows={}", customerId, result);
+        return result > 0;
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        if (update.getName() != null) {
-            String sql = "UPDATE customer SET name = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getName(), update.getId());
-            System.out.println("update customer name result = " + result);
-        }
-
-        if (update.getAge() != null) {
-            String sql = "UPDATE customer SET age = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getAge(), update.getId());
-            System.out.println("update customer age result = " + result);
+    public Optional<Customer> updateCustomer(Customer update) {
+        int columns = CustomerUpdateSql.changedColumns(update);
+        if (columns == 0) {
+            return Optional.empty();
         }
+        Optional<Customer> updated = jdbcTemplate.query(
+                        CustomerUpdateSql.statement(columns),
+                        customerRowMapper,
+                        CustomerUpdateSql.arguments(update, columns))
+                .stream()
+                .findFirst();
+        log.debug("customer updated id={} changed={}", update.getId(), updated.isPresent());
+        return updated;
+    }
 
-        if (update.getEmail() != null) {
-            String sql = "UPDATE customer SET email = ? WHERE id = ?";
-            int result = jdbcTemplate.update(sql, update.getEmail(), update.getId());
-            System.out.println("update customer email result = " + result);
+    @Override
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        if (ids.isEmpty()) {
+            return 0;
         }
+        var sql =
+                """
+                UPDATE customer
+                SET age = age + ?
+                WHERE id = ANY(?)
+                """;
+        int updated = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setInt(1, delta);
+            statement.setArray(2, connection.createArrayOf("int4", ids.toArray()));
+            return statement;
+        });
+        log.debug("customer ages adjusted ids={} delta={} updated={}", ids.size(), delta, updated);
+        return updated;
     }
 }
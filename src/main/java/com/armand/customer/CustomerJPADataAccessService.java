@@ -1,9 +1,15 @@
 package com.armand.customer;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository("jpa")
 public class CustomerJPADataAccessService implements CustomerDao {
@@ -16,12 +22,42 @@ public class CustomerJPADataAccessService implements CustomerDao {
 
     @Override
     public List<Customer> selectAllCustomers() {
-        return customerRepository.findAll();
+        return customerRepository.findAllViews().stream().map(CustomerView::toCustomer).toList();
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        return customerRepository.findViewsAfter(lastId, limit).stream().map(CustomerView::toCustomer).toList();
+    }
+
+    @Override
+    public Stream<Customer> streamAllCustomers() {
+        return customerRepository.streamAllBy();
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        return customerRepository.findCustomers(query).stream().map(CustomerView::toCustomer).toList();
     }
 
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
-        return customerRepository.findById(id);
+        return customerRepository.findViewById(id).map(CustomerView::toCustomer);
+    }
+
+    @Override
+    public List<Customer> searchCustomers(String query, int limit) {
+        return customerRepository.searchCustomers(
+                CustomerSearch.containsPattern(query), query, limit);
+    }
+
+    @Override
+    public CustomerStats selectCustomerStats() {
+        long[] customers = new long[CustomerStats.BUCKETS];
+        for (Object[] row : customerRepository.countCustomersPerAgeBucket()) {
+            customers[((Number) row[0]).intValue()] = ((Number) row[1]).longValue();
+        }
+        return CustomerStats.of(customers);
     }
 
     @Override
@@ -29,23 +65,64 @@ public class CustomerJPADataAccessService implements CustomerDao {
         customerRepository.save(customer);
     }
 
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        return customerRepository.insertIfEmailAbsent(
+                customer.getName(), customer.getEmail(), customer.getAge());
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        if (customers.isEmpty()) {
+            return Set.of();
+        }
+        // new instances, persisting assigns ids and a rollback would leave them on the callers' customers
+        List<Customer> copies = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            copies.add(new Customer(customer.getName(), customer.getEmail(), customer.getAge()));
+        }
+        try {
+            customerRepository.persistInChunks(copies);
+            return copies.stream().map(Customer::getEmail).collect(Collectors.toSet());
+        } catch (DataIntegrityViolationException e) {
+            // a taken email rolled back the whole batch, let ON CONFLICT skip the taken ones instead
+            return customerRepository.insertAllIfEmailAbsent(copies);
+        }
+    }
+
     @Override
     public boolean existsCustomerWithEmail(String email) {
         return customerRepository.existsCustomerByEmail(email);
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return customerRepository.findExistingEmails(emails);
+    }
+
     @Override
     public boolean existsCustomerById(Integer id) {
         return customerRepository.existsCustomerById(id);
     }
 
     @Override
-    public void deleteCustomerById(Integer customerId) {
-        customerRepository.deleteById(customerId);
+    public boolean deleteCustomerById(Integer customerId) {
+        return customerRepository.deleteCustomerById(customerId) > 0;
+    }
+
+    @Override
+    public Optional<Customer> updateCustomer(Customer update) {
+        return customerRepository.updateChangedColumns(update);
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        customerRepository.save(update);
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return customerRepository.adjustAgeOfCustomers(ids, delta);
     }
 }
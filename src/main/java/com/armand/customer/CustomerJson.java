@@ -0,0 +1,43 @@
+package com.armand.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+// bound to their types once, so the root serializer is not looked up on every call
+@Component
+public class CustomerJson {
+
+    private final ObjectWriter customerLineWriter;
+    private final ObjectWriter registrationWriter;
+    private final ObjectWriter updateWriter;
+    private final ObjectReader registrationReader;
+
+    public CustomerJson(ObjectMapper objectMapper) {
+        // newline delimited json, flushing is left to the output stream buffer
+        this.customerLineWriter = objectMapper.writerFor(Customer.class)
+                .withRootValueSeparator("\n")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.registrationWriter = objectMapper.writerFor(CustomerRegistrationRequest.class);
+        this.updateWriter = objectMapper.writerFor(CustomerUpdateRequest.class);
+        this.registrationReader = objectMapper.readerFor(CustomerRegistrationRequest.class);
+    }
+
+    public ObjectWriter customerLineWriter() {
+        return customerLineWriter;
+    }
+
+    public ObjectWriter registrationWriter() {
+        return registrationWriter;
+    }
+
+    public ObjectWriter updateWriter() {
+        return updateWriter;
+    }
+
+    public ObjectReader registrationReader() {
+        return registrationReader;
+    }
+}
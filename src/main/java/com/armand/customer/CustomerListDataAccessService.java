@@ -1,62 +1,215 @@
 package com.armand.customer;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository("list")
 public class CustomerListDataAccessService implements CustomerDao {
 
     // db
-    private static List<Customer> customers;
+    private final ConcurrentNavigableMap<Integer, Customer> customers = new ConcurrentSkipListMap<>();
+    // a writer claims the email here with putIfAbsent before its customer is visible by id
+    private final ConcurrentHashMap<String, Integer> idsByEmail = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final SortedCustomerIndex sortedIndex = new SortedCustomerIndex();
+    private final CustomerAgeCounts ageCounts = new CustomerAgeCounts();
 
-    static {
-        customers = new ArrayList<>();
-        Customer alex = new Customer(1, "Alex", "alex@gmail.com", 21);
+    public CustomerListDataAccessService() {
+        insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+        insertCustomer(new Customer("Jamila", "jamila@gmail.com", 19));
+    }
 
-        Customer jamila = new Customer(2, "Jamila", "jamila@gmail.com", 19);
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return customers.values().stream().map(CustomerListDataAccessService::copy).toList();
+    }
 
-        customers.add(alex);
-        customers.add(jamila);
+    @Override
+    public List<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        return customers.tailMap(lastId, false).values().stream()
+                .limit(limit)
+                .map(CustomerListDataAccessService::copy)
+                .toList();
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
-        return customers;
+    public Stream<Customer> streamAllCustomers() {
+        return customers.values().stream().map(CustomerListDataAccessService::copy);
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        Stream<Customer> ordered = query.sort() == CustomerQuery.Sort.ID
+                ? customers.values().stream()
+                : sortedIndex.ordered(query);
+        return ordered.filter(query::matches)
+                .limit(query.limit())
+                .map(CustomerListDataAccessService::copy)
+                .toList();
     }
 
     @Override
     public Optional<Customer> selectCustomerById(Integer id) {
-        return customers.stream().filter((c -> c.getId().equals(id))).findFirst();
+        return Optional.ofNullable(customers.get(id)).map(CustomerListDataAccessService::copy);
+    }
+
+    @Override
+    public List<Customer> searchCustomers(String query, int limit) {
+        String lowerCaseQuery = CustomerSearch.lowerCase(query);
+        Collection<Integer> candidates = trigramIndex.candidates(lowerCaseQuery);
+        Stream<Customer> matches = candidates == null
+                ? customers.values().stream()
+                : candidates.stream().map(customers::get).filter(Objects::nonNull);
+        return CustomerSearch.rank(
+                        matches.filter(customer -> CustomerSearch.matches(customer, lowerCaseQuery)), query, limit)
+                .stream()
+                .map(CustomerListDataAccessService::copy)
+                .toList();
+    }
+
+    @Override
+    public CustomerStats selectCustomerStats() {
+        return ageCounts.stats();
     }
 
     @Override
     public void insertCustomer(Customer customer) {
-        customers.add(customer);
+        if (insertIfEmailAbsent(customer).isEmpty()) {
+            throw new DuplicateKeyException("email already taken: " + customer.getEmail());
+        }
+    }
+
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        // like a database sequence, an id lost to a duplicate email is not reused
+        int id = ids.incrementAndGet();
+        if (idsByEmail.putIfAbsent(customer.getEmail(), id) != null) {
+            return Optional.empty();
+        }
+        customers.put(id, new Customer(id, customer.getName(), customer.getEmail(), customer.getAge()));
+        ageCounts.added(customer.getAge());
+        index(id);
+        return Optional.of(id);
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        Set<String> inserted = new HashSet<>();
+        for (Customer customer : customers) {
+            if (insertIfEmailAbsent(customer).isPresent()) {
+                inserted.add(customer.getEmail());
+            }
+        }
+        return inserted;
     }
 
     @Override
     public boolean existsCustomerWithEmail(String email) {
-        return customers.stream().anyMatch(c -> c.getEmail().equals(email));
+        return idsByEmail.containsKey(email);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return emails.stream()
+                .filter(idsByEmail::containsKey)
+                .collect(Collectors.toSet());
     }
 
     @Override
     public boolean existsCustomerById(Integer id) {
-        return customers.stream().anyMatch(c -> c.getId().equals(id));
+        return customers.containsKey(id);
     }
 
     @Override
-    public void deleteCustomerById(Integer customerId) {
-        customers.stream()
-                .filter(c -> c.getId().equals(customerId))
-                .findFirst()
-                .ifPresent(customers::remove);
+    public boolean deleteCustomerById(Integer customerId) {
+        Customer removed = customers.remove(customerId);
+        if (removed == null) {
+            return false;
+        }
+        idsByEmail.remove(removed.getEmail(), customerId);
+        ageCounts.removed(removed.getAge());
+        index(customerId);
+        return true;
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        customers.add(update);
+    public Optional<Customer> updateCustomer(Customer update) {
+        Integer id = update.getId();
+        String email = update.getEmail();
+        if (email != null) {
+            Integer owner = idsByEmail.putIfAbsent(email, id);
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException("email already taken: " + email);
+            }
+        }
+
+        AtomicReference<Customer> previous = new AtomicReference<>();
+        Customer updated = customers.computeIfPresent(id, (key, customer) -> {
+            previous.set(customer);
+            return new Customer(
+                    id,
+                    update.getName() != null ? update.getName() : customer.getName(),
+                    email != null ? email : customer.getEmail(),
+                    update.getAge() != null ? update.getAge() : customer.getAge());
+        });
+
+        // release whichever email is no longer used: the replaced one, or our claim if nothing was updated
+        String previousEmail = previous.get() != null ? previous.get().getEmail() : null;
+        String currentEmail = updated != null ? updated.getEmail() : null;
+        if (previousEmail != null && !previousEmail.equals(currentEmail)) {
+            idsByEmail.remove(previousEmail, id);
+        }
+        if (email != null && !email.equals(currentEmail)) {
+            idsByEmail.remove(email, id);
+        }
+
+        if (updated == null || updated.equals(previous.get())) {
+            return Optional.empty();
+        }
+        ageCounts.changed(previous.get().getAge(), updated.getAge());
+        index(id);
+        return Optional.of(copy(updated));
+    }
+
+    @Override
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        int updated = 0;
+        for (Integer id : Set.copyOf(ids)) {
+            AtomicReference<Customer> previous = new AtomicReference<>();
+            Customer customer = customers.computeIfPresent(id, (key, current) -> {
+                previous.set(current);
+                return new Customer(id, current.getName(), current.getEmail(), current.getAge() + delta);
+            });
+            if (customer != null) {
+                ageCounts.changed(previous.get().getAge(), customer.getAge());
+                index(id);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private void index(int id) {
+        trigramIndex.index(id, customers::get);
+        sortedIndex.index(id, customers::get);
+    }
+
+    private static Customer copy(Customer customer) {
+        return new Customer(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
     }
 }
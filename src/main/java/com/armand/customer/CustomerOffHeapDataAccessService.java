@@ -0,0 +1,289 @@
+package com.armand.customer;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Repository("offheap")
+public class CustomerOffHeapDataAccessService implements CustomerDao {
+
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    private final OffHeapCustomerTable table = new OffHeapCustomerTable(1024);
+    // readers share the table, writers take it exclusively
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CustomerAgeCounts ageCounts = new CustomerAgeCounts();
+    private int lastId;
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return read(() -> {
+            List<Customer> customers = new ArrayList<>(table.size());
+            for (int slot = 0; slot < table.slotCount(); slot++) {
+                if (table.isLive(slot)) {
+                    customers.add(table.customer(slot));
+                }
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        return read(() -> {
+            List<Customer> customers = new ArrayList<>(Math.min(limit, table.size()));
+            for (int slot = table.firstSlotAfter(lastId); slot < table.slotCount() && customers.size() < limit; slot++) {
+                if (table.isLive(slot)) {
+                    customers.add(table.customer(slot));
+                }
+            }
+            return customers;
+        });
+    }
+
+    @Override
+    public Stream<Customer> streamAllCustomers() {
+        // page by id so writers are only held off for one page at a time
+        return Stream.iterate(
+                        selectCustomersAfter(0, STREAM_PAGE_SIZE),
+                        page -> !page.isEmpty(),
+                        page -> page.size() < STREAM_PAGE_SIZE
+                                ? List.of()
+                                : selectCustomersAfter(page.get(page.size() - 1).getId(), STREAM_PAGE_SIZE))
+                .flatMap(List::stream);
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        int minAge = query.minAge() == null ? Integer.MIN_VALUE : query.minAge();
+        int maxAge = query.maxAge() == null ? Integer.MAX_VALUE : query.maxAge();
+        return read(() -> switch (query.sort()) {
+            // slots are in id order
+            case ID -> firstMatches(minAge, maxAge, query.limit());
+            case AGE -> topMatches(minAge, maxAge, query.limit(),
+                    Comparator.comparingInt(Match::age).thenComparingInt(Match::id),
+                    slot -> new Match(slot, table.id(slot), table.age(slot), null));
+            case NAME -> topMatches(minAge, maxAge, query.limit(),
+                    Comparator.comparing(Match::name).thenComparingInt(Match::id),
+                    slot -> new Match(slot, table.id(slot), table.age(slot), table.name(slot)));
+        });
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return read(() -> {
+            int slot = table.slotOfId(id);
+            return slot < 0 ? Optional.empty() : Optional.of(table.customer(slot));
+        });
+    }
+
+    @Override
+    public List<Customer> searchCustomers(String query, int limit) {
+        String lowerCaseQuery = CustomerSearch.lowerCase(query);
+        byte[] asciiQuery = OffHeapCustomerTable.ascii(lowerCaseQuery);
+        return read(() -> {
+            Stream<Integer> matches = IntStream.range(0, table.slotCount())
+                    .filter(slot -> table.isLive(slot) && table.nameOrEmailContains(slot, lowerCaseQuery, asciiQuery))
+                    .boxed();
+            // scored on the decoded name and email, only the best are decoded into customers
+            return CustomerSearch.rank(matches, query, limit, table::id, table::name, table::email).stream()
+                    .map(table::customer)
+                    .toList();
+        });
+    }
+
+    @Override
+    public CustomerStats selectCustomerStats() {
+        return ageCounts.stats();
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        if (insertIfEmailAbsent(customer).isEmpty()) {
+            throw new DuplicateKeyException("email already taken: " + customer.getEmail());
+        }
+    }
+
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        return write(() -> {
+            if (table.slotOfEmail(customer.getEmail()) >= 0) {
+                return Optional.empty();
+            }
+            int id = ++lastId;
+            table.append(id, customer.getName(), customer.getEmail(), customer.getAge());
+            ageCounts.added(customer.getAge());
+            return Optional.of(id);
+        });
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        return write(() -> {
+            Set<String> inserted = new HashSet<>();
+            for (Customer customer : customers) {
+                if (table.slotOfEmail(customer.getEmail()) < 0) {
+                    table.append(++lastId, customer.getName(), customer.getEmail(), customer.getAge());
+                    ageCounts.added(customer.getAge());
+                    inserted.add(customer.getEmail());
+                }
+            }
+            return inserted;
+        });
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return read(() -> table.slotOfEmail(email) >= 0);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return read(() -> emails.stream()
+                .filter(email -> table.slotOfEmail(email) >= 0)
+                .collect(Collectors.toSet()));
+    }
+
+    @Override
+    public boolean existsCustomerById(Integer id) {
+        return read(() -> table.slotOfId(id) >= 0);
+    }
+
+    @Override
+    public boolean deleteCustomerById(Integer customerId) {
+        return write(() -> {
+            int slot = table.slotOfId(customerId);
+            if (slot < 0) {
+                return false;
+            }
+            ageCounts.removed(table.age(slot));
+            table.delete(slot);
+            return true;
+        });
+    }
+
+    @Override
+    public Optional<Customer> updateCustomer(Customer update) {
+        return write(() -> {
+            int slot = table.slotOfId(update.getId());
+            if (slot < 0) {
+                return Optional.empty();
+            }
+            Customer customer = table.customer(slot);
+            Customer updated = new Customer(
+                    customer.getId(),
+                    update.getName() != null ? update.getName() : customer.getName(),
+                    update.getEmail() != null ? update.getEmail() : customer.getEmail(),
+                    update.getAge() != null ? update.getAge() : customer.getAge());
+            if (updated.equals(customer)) {
+                return Optional.empty();
+            }
+            int owner = table.slotOfEmail(updated.getEmail());
+            if (owner >= 0 && owner != slot) {
+                throw new DuplicateKeyException("email already taken: " + updated.getEmail());
+            }
+            table.update(slot, updated.getName(), updated.getEmail(), updated.getAge());
+            ageCounts.changed(customer.getAge(), updated.getAge());
+            return Optional.of(updated);
+        });
+    }
+
+    @Override
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        return write(() -> {
+            int updated = 0;
+            for (Integer id : Set.copyOf(ids)) {
+                int slot = table.slotOfId(id);
+                if (slot < 0) {
+                    continue;
+                }
+                int age = table.age(slot);
+                table.updateAge(slot, age + delta);
+                ageCounts.changed(age, age + delta);
+                updated++;
+            }
+            return updated;
+        });
+    }
+
+    long offHeapBytes() {
+        return read(table::offHeapBytes);
+    }
+
+    long indexBytes() {
+        return read(table::indexBytes);
+    }
+
+    private List<Customer> firstMatches(int minAge, int maxAge, int limit) {
+        List<Customer> found = new ArrayList<>();
+        for (int slot = 0; slot < table.slotCount() && found.size() < limit; slot++) {
+            if (table.isLive(slot) && isAged(slot, minAge, maxAge)) {
+                found.add(table.customer(slot));
+            }
+        }
+        return found;
+    }
+
+    // the best limit matches so far, worst on top; customers are only decoded for the ones kept
+    private List<Customer> topMatches(int minAge, int maxAge, int limit,
+                                      Comparator<Match> order, IntFunction<Match> match) {
+        PriorityQueue<Match> best = new PriorityQueue<>(limit, order.reversed());
+        for (int slot = 0; slot < table.slotCount(); slot++) {
+            if (!table.isLive(slot) || !isAged(slot, minAge, maxAge)) {
+                continue;
+            }
+            Match candidate = match.apply(slot);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (order.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+        return best.stream()
+                .sorted(order)
+                .map(kept -> table.customer(kept.slot()))
+                .toList();
+    }
+
+    private boolean isAged(int slot, int minAge, int maxAge) {
+        int age = table.age(slot);
+        return age >= minAge && age <= maxAge;
+    }
+
+    private record Match(int slot, int id, int age, String name) {
+    }
+
+    private <T> T read(Supplier<T> action) {
+        return locked(lock.readLock(), action);
+    }
+
+    private <T> T write(Supplier<T> action) {
+        return locked(lock.writeLock(), action);
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
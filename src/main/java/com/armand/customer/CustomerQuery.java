@@ -0,0 +1,29 @@
+package com.armand.customer;
+
+import java.util.Comparator;
+
+// every order ends with the id, so it is total and the same across daos
+public record CustomerQuery(Integer minAge, Integer maxAge, Sort sort, int limit) {
+
+    public enum Sort {
+        ID(Comparator.comparing(Customer::getId)),
+        // names compare by character codes, like the "C" collation of the indexes (V4)
+        NAME(Comparator.comparing(Customer::getName).thenComparing(Customer::getId)),
+        AGE(Comparator.comparing(Customer::getAge).thenComparing(Customer::getId));
+
+        private final Comparator<Customer> comparator;
+
+        Sort(Comparator<Customer> comparator) {
+            this.comparator = comparator;
+        }
+
+        public Comparator<Customer> comparator() {
+            return comparator;
+        }
+    }
+
+    public boolean matches(Customer customer) {
+        return (minAge == null || customer.getAge() >= minAge)
+                && (maxAge == null || customer.getAge() <= maxAge);
+    }
+}
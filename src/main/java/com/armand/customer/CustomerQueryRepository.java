@@ -0,0 +1,16 @@
+package com.armand.customer;
+
+import java.util.List;
+import java.util.Optional;
+
+// views are neither registered nor snapshotted for dirty checking
+public interface CustomerQueryRepository {
+
+    List<CustomerView> findAllViews();
+
+    Optional<CustomerView> findViewById(Integer id);
+
+    List<CustomerView> findViewsAfter(Integer lastId, int limit);
+
+    List<CustomerView> findCustomers(CustomerQuery query);
+}
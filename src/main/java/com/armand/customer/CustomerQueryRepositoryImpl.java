@@ -0,0 +1,93 @@
+package com.armand.customer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+class CustomerQueryRepositoryImpl implements CustomerQueryRepository {
+
+    private static final String SELECT_CUSTOMERS =
+            "select new com.armand.customer.CustomerView(c.id, c.name, c.email, c.age) from Customer c";
+    private static final String SELECT_CUSTOMER_BY_ID = SELECT_CUSTOMERS + " where c.id = :id";
+    private static final String SELECT_CUSTOMERS_AFTER = SELECT_CUSTOMERS + " where c.id > :id order by c.id";
+
+    private final EntityManager entityManager;
+
+    CustomerQueryRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerView> findAllViews() {
+        return entityManager.createQuery(SELECT_CUSTOMERS, CustomerView.class).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<CustomerView> findViewById(Integer id) {
+        return entityManager.createQuery(SELECT_CUSTOMER_BY_ID, CustomerView.class)
+                .setParameter("id", id)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerView> findViewsAfter(Integer lastId, int limit) {
+        return entityManager.createQuery(SELECT_CUSTOMERS_AFTER, CustomerView.class)
+                .setParameter("id", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CustomerView> findCustomers(CustomerQuery query) {
+        HibernateCriteriaBuilder builder = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<CustomerView> criteria = builder.createQuery(CustomerView.class);
+        Root<Customer> customer = criteria.from(Customer.class);
+        Selection<?>[] columns = {customer.get("id"), customer.get("name"), customer.get("email"), customer.get("age")};
+        criteria.select(builder.construct(CustomerView.class, columns));
+        Predicate predicate = Specification.where(ageAtLeast(query.minAge()))
+                .and(ageAtMost(query.maxAge()))
+                .toPredicate(customer, criteria, builder);
+        if (predicate != null) {
+            criteria.where(predicate);
+        }
+        criteria.orderBy(orderBy(query.sort(), customer, builder));
+        return entityManager.createQuery(criteria).setMaxResults(query.limit()).getResultList();
+    }
+
+    static Specification<Customer> ageAtLeast(Integer minAge) {
+        return minAge == null ? null : (customer, criteria, builder) ->
+                builder.greaterThanOrEqualTo(customer.get("age"), minAge);
+    }
+
+    static Specification<Customer> ageAtMost(Integer maxAge) {
+        return maxAge == null ? null : (customer, criteria, builder) ->
+                builder.lessThanOrEqualTo(customer.get("age"), maxAge);
+    }
+
+    private static List<Order> orderBy(
+            CustomerQuery.Sort sort, Root<Customer> customer, HibernateCriteriaBuilder builder) {
+        Order id = builder.asc(customer.get("id"));
+        return switch (sort) {
+            case ID -> List.of(id);
+            // the collation of customer_name_id_idx, quoted as hibernate writes it verbatim
+            case NAME -> List.of(builder.asc(builder.collate(customer.<String>get("name"), "\"C\"")), id);
+            case AGE -> List.of(builder.asc(customer.get("age")), id);
+        };
+    }
+}
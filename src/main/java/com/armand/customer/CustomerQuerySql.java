@@ -0,0 +1,87 @@
+package com.armand.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// only the bounds a query sets are in its WHERE clause, so the planner can walk the (age, id) or (name, id) index
+final class CustomerQuerySql {
+
+    static final int MIN_AGE = 1;
+    static final int MAX_AGE = 1 << 1;
+
+    private static final CustomerQuery.Sort[] SORTS = CustomerQuery.Sort.values();
+    private static final String[] STATEMENTS = new String[4 * SORTS.length];
+    private static final String[] NUMBERED_STATEMENTS = new String[STATEMENTS.length];
+
+    static {
+        for (int bounds = 0; bounds < 4; bounds++) {
+            List<String> conditions = new ArrayList<>();
+            if ((bounds & MIN_AGE) != 0) {
+                conditions.add("age >= ?");
+            }
+            if ((bounds & MAX_AGE) != 0) {
+                conditions.add("age <= ?");
+            }
+            String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+            for (CustomerQuery.Sort sort : SORTS) {
+                int index = index(bounds, sort);
+                STATEMENTS[index] =
+                        """
+                        SELECT id, name, email, age
+                        FROM customer
+                        %s
+                        ORDER BY %s
+                        LIMIT ?
+                        """.formatted(where, orderBy(sort));
+                NUMBERED_STATEMENTS[index] = SqlPlaceholders.numbered(STATEMENTS[index]);
+            }
+        }
+    }
+
+    private CustomerQuerySql() {
+    }
+
+    static int bounds(CustomerQuery query) {
+        int bounds = 0;
+        if (query.minAge() != null) {
+            bounds |= MIN_AGE;
+        }
+        if (query.maxAge() != null) {
+            bounds |= MAX_AGE;
+        }
+        return bounds;
+    }
+
+    static String statement(CustomerQuery query) {
+        return STATEMENTS[index(bounds(query), query.sort())];
+    }
+
+    static String numberedStatement(CustomerQuery query) {
+        return NUMBERED_STATEMENTS[index(bounds(query), query.sort())];
+    }
+
+    static Object[] arguments(CustomerQuery query) {
+        List<Object> arguments = new ArrayList<>(3);
+        if (query.minAge() != null) {
+            arguments.add(query.minAge());
+        }
+        if (query.maxAge() != null) {
+            arguments.add(query.maxAge());
+        }
+        arguments.add(query.limit());
+        return arguments.toArray();
+    }
+
+    private static String orderBy(CustomerQuery.Sort sort) {
+        return switch (sort) {
+            case ID -> "id";
+            // must match the collation of customer_name_id_idx for the index to give the order
+            case NAME -> "name COLLATE \"C\", id";
+            case AGE -> "age, id";
+        };
+    }
+
+    private static int index(int bounds, CustomerQuery.Sort sort) {
+        return bounds * SORTS.length + sort.ordinal();
+    }
+}
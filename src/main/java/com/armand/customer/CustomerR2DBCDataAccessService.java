@@ -0,0 +1,202 @@
+package com.armand.customer;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository("r2dbc")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CustomerR2DBCDataAccessService implements ReactiveCustomerDao {
+
+    // rows per round trip while streaming, the driver only fetches the next batch on demand
+    static final int FETCH_SIZE = 500;
+
+    // column positions of "id, name, email, age", r2dbc indexes from 0
+    private static final int ID = 0;
+    private static final int NAME = 1;
+    private static final int EMAIL = 2;
+    private static final int AGE = 3;
+
+    private final DatabaseClient databaseClient;
+
+    public CustomerR2DBCDataAccessService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Customer> selectAllCustomers() {
+        var sql =
+                """
+                  SELECT id, name, email, age
+                  FROM customer
+                  ORDER BY id
+                """;
+
+        return databaseClient.sql(sql)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(CustomerR2DBCDataAccessService::customer)
+                .all();
+    }
+
+    @Override
+    public Flux<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        var sql =
+                """
+                  SELECT id, name, email, age
+                  FROM customer
+                  WHERE id > $1
+                  ORDER BY id
+                  LIMIT $2
+                """;
+
+        return databaseClient.sql(sql)
+                .bind(0, lastId)
+                .bind(1, limit)
+                .map(CustomerR2DBCDataAccessService::customer)
+                .all();
+    }
+
+    @Override
+    public Flux<Customer> selectCustomers(CustomerQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(CustomerQuerySql.numberedStatement(query));
+        Object[] arguments = CustomerQuerySql.arguments(query);
+        for (int i = 0; i < arguments.length; i++) {
+            spec = spec.bind(i, arguments[i]);
+        }
+        return spec.map(CustomerR2DBCDataAccessService::customer).all();
+    }
+
+    @Override
+    public Mono<Customer> selectCustomerById(Integer id) {
+        var sql =
+                """
+                    SELECT id, name, email, age
+                    FROM customer
+                    WHERE id = $1
+                """;
+
+        return databaseClient.sql(sql)
+                .bind(0, id)
+                .map(CustomerR2DBCDataAccessService::customer)
+                .one();
+    }
+
+    @Override
+    public Mono<CustomerStats> selectCustomerStats() {
+        var sql =
+                """
+                    SELECT bucket, CAST(sum(customers) AS BIGINT)
+                    FROM customer_age_stats
+                    GROUP BY bucket
+                """;
+
+        return databaseClient.sql(sql)
+                .map(row -> new long[] {row.get(0, Integer.class), row.get(1, Long.class)})
+                .all()
+                .reduceWith(() -> new long[CustomerStats.BUCKETS], (customers, row) -> {
+                    customers[(int) row[0]] = row[1];
+                    return customers;
+                })
+                .map(CustomerStats::of);
+    }
+
+    @Override
+    public Flux<Customer> searchCustomers(String query, int limit) {
+        return databaseClient.sql(CustomerSearchSql.NUMBERED_SEARCH)
+                .bind(0, CustomerSearch.containsPattern(query))
+                .bind(1, query)
+                .bind(2, limit)
+                .map(CustomerR2DBCDataAccessService::customer)
+                .all();
+    }
+
+    @Override
+    public Mono<Integer> insertIfEmailAbsent(Customer customer) {
+        var sql =
+                """
+                INSERT INTO customer (name, email, age)
+                VALUES ($1, $2, $3)
+                ON CONFLICT (email) DO NOTHING
+                RETURNING id
+                """;
+        return databaseClient.sql(sql)
+                .bind(0, customer.getName())
+                .bind(1, customer.getEmail())
+                .bind(2, customer.getAge())
+                .map(row -> row.get(0, Integer.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> existsCustomerById(Integer id) {
+        var sql =
+                """
+                        SELECT EXISTS (SELECT 1 FROM customer WHERE id = $1)
+                        """;
+        return databaseClient.sql(sql)
+                .bind(0, id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> deleteCustomerById(Integer customerId) {
+        var sql =
+                """
+                        DELETE
+                        FROM customer
+                        WHERE id = $1
+                        """;
+        return databaseClient.sql(sql)
+                .bind(0, customerId)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    @Override
+    public Mono<Customer> updateCustomer(Customer update) {
+        int columns = CustomerUpdateSql.changedColumns(update);
+        if (columns == 0) {
+            return Mono.empty();
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(CustomerUpdateSql.numberedStatement(columns));
+        Object[] arguments = CustomerUpdateSql.arguments(update, columns);
+        for (int i = 0; i < arguments.length; i++) {
+            spec = spec.bind(i, arguments[i]);
+        }
+        return spec.map(CustomerR2DBCDataAccessService::customer).one();
+    }
+
+    @Override
+    public Mono<Integer> adjustCustomersAge(Collection<Integer> ids, int delta) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        var sql =
+                """
+                UPDATE customer
+                SET age = age + $1
+                WHERE id = ANY($2)
+                """;
+        return databaseClient.sql(sql)
+                .bind(0, delta)
+                .bind(1, ids.toArray(Integer[]::new))
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue);
+    }
+
+    private static Customer customer(Readable row) {
+        return new Customer(
+                row.get(ID, Integer.class),
+                row.get(NAME, String.class),
+                row.get(EMAIL, String.class),
+                row.get(AGE, Integer.class));
+    }
+}
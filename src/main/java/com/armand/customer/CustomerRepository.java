@@ -1,10 +1,90 @@
 package com.armand.customer;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface CustomerRepository extends JpaRepository<Customer, Integer>, CustomerQueryRepository, CustomerBulkRepository {
 
     boolean existsCustomerByEmail(String email);
 
     boolean existsCustomerById(Integer id);
+
+    @Transactional
+    @Query(
+            nativeQuery = true,
+            value = """
+                    INSERT INTO customer (name, email, age)
+                    VALUES (:name, :email, :age)
+                    ON CONFLICT (email) DO NOTHING
+                    RETURNING id
+                    """)
+    Optional<Integer> insertIfEmailAbsent(String name, String email, Integer age);
+
+    // bulk delete, unlike deleteById it does not load the entity first
+    @Transactional
+    @Modifying
+    @Query("delete from Customer c where c.id = :id")
+    int deleteCustomerById(Integer id);
+
+    // bulk update, one statement for all ids without loading the entities
+    @Transactional
+    @Modifying
+    @Query("update Customer c set c.age = c.age + :delta where c.id in :ids")
+    int adjustAgeOfCustomers(Collection<Integer> ids, int delta);
+
+    @Query("select c.email from Customer c where c.email in :emails")
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    // native queries map rows to managed entities, read-only ones get no dirty checking snapshot
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query(
+            nativeQuery = true,
+            value = """
+                    SELECT id, name, email, age
+                    FROM (
+                        (SELECT id, name, email, age
+                         FROM customer
+                         WHERE name ILIKE :pattern
+                         ORDER BY name <-> :query, id
+                         LIMIT :limit)
+                        UNION
+                        (SELECT id, name, email, age
+                         FROM customer
+                         WHERE email ILIKE :pattern
+                         ORDER BY email <-> :query, id
+                         LIMIT :limit)
+                    ) candidates
+                    ORDER BY greatest(similarity(name, :query), similarity(email, :query)) DESC, id
+                    LIMIT :limit
+                    """)
+    List<Customer> searchCustomers(String pattern, String query, int limit);
+
+    // kept current by the triggers of V5, one row per bucket and writing backend
+    @Query(
+            nativeQuery = true,
+            value = """
+                    SELECT bucket, CAST(sum(customers) AS BIGINT)
+                    FROM customer_age_stats
+                    GROUP BY bucket
+                    """)
+    List<Object[]> countCustomersPerAgeBucket();
+
+    // constructor expression returns detached instances, so the persistence context does not grow
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.armand.customer.Customer(c.id, c.name, c.email, c.age) from Customer c")
+    Stream<Customer> streamAllBy();
 }
@@ -6,14 +6,21 @@ import org.springframework.stereotype.Component;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+// rows must be selected as id, name, email, age, they are read by position
 @Component
 public class CustomerRowMapper implements RowMapper<Customer> {
+
+    static final int ID = 1;
+    static final int NAME = 2;
+    static final int EMAIL = 3;
+    static final int AGE = 4;
+
     @Override
     public Customer mapRow(ResultSet rs, int rowNum) throws SQLException {
         return new Customer(
-                rs.getInt("id"),
-                rs.getString("name"),
-                rs.getString("email"),
-                rs.getInt("age"));
+                rs.getInt(ID),
+                rs.getString(NAME),
+                rs.getString(EMAIL),
+                rs.getInt(AGE));
     }
 }
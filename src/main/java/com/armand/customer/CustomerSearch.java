@@ -0,0 +1,107 @@
+package com.armand.customer;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+// shared by every dao, so the in-memory ones rank like pg_trgm
+final class CustomerSearch {
+
+    static final int MIN_QUERY_LENGTH = 3;
+
+    private static final Comparator<Scored<?>> BEST_FIRST =
+            Comparator.comparingDouble(Scored<?>::score).reversed().thenComparingInt(Scored::id);
+
+    private CustomerSearch() {
+    }
+
+    static String containsPattern(String query) {
+        StringBuilder pattern = new StringBuilder(query.length() + 2).append('%');
+        for (char c : query.toCharArray()) {
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    static boolean matches(Customer customer, String lowerCaseQuery) {
+        return lowerCase(customer.getName()).contains(lowerCaseQuery)
+                || lowerCase(customer.getEmail()).contains(lowerCaseQuery);
+    }
+
+    static List<Customer> rank(Stream<Customer> matches, String query, int limit) {
+        return rank(matches, query, limit, Customer::getId, Customer::getName, Customer::getEmail);
+    }
+
+    static <T> List<T> rank(
+            Stream<T> matches,
+            String query,
+            int limit,
+            ToIntFunction<T> id,
+            Function<T, String> name,
+            Function<T, String> email) {
+        Set<String> queryTrigrams = trigrams(query);
+        // worst of the best at the head, so it is the one dropped
+        PriorityQueue<Scored<T>> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        matches.forEach(match -> {
+            best.add(new Scored<>(match, id.applyAsInt(match), Math.max(
+                    similarity(queryTrigrams, trigrams(name.apply(match))),
+                    similarity(queryTrigrams, trigrams(email.apply(match))))));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        });
+        return best.stream().sorted(BEST_FIRST).map(Scored::match).toList();
+    }
+
+    static double similarity(String a, String b) {
+        return similarity(trigrams(a), trigrams(b));
+    }
+
+    static String lowerCase(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    // pg_trgm pads every run of letters and digits with two spaces in front and one behind
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        String lower = lowerCase(text);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = "  " + lower.substring(start, i) + " ";
+                for (int j = 0; j + 3 <= word.length(); j++) {
+                    trigrams.add(word.substring(j, j + 3));
+                }
+                start = -1;
+            }
+        }
+        return trigrams;
+    }
+
+    private record Scored<T>(T match, int id, double score) {}
+}
@@ -0,0 +1,37 @@
+package com.armand.customer;
+
+// the best by the greater similarity are among the best of one branch or the other
+final class CustomerSearchSql {
+
+    private static final String SEARCH_TEMPLATE =
+            """
+            SELECT id, name, email, age
+            FROM (
+                (SELECT id, name, email, age
+                 FROM customer
+                 WHERE name ILIKE %1$s
+                 ORDER BY name <-> %2$s, id
+                 LIMIT %3$s)
+                UNION
+                (SELECT id, name, email, age
+                 FROM customer
+                 WHERE email ILIKE %1$s
+                 ORDER BY email <-> %2$s, id
+                 LIMIT %3$s)
+            ) candidates
+            ORDER BY greatest(similarity(name, %2$s), similarity(email, %2$s)) DESC, id
+            LIMIT %3$s
+            """;
+
+    static final String SEARCH = SEARCH_TEMPLATE.formatted("?", "?", "?");
+
+    static final String NUMBERED_SEARCH = SEARCH_TEMPLATE.formatted("$1", "$2", "$3");
+
+    private CustomerSearchSql() {
+    }
+
+    static Object[] arguments(String query, int limit) {
+        String pattern = CustomerSearch.containsPattern(query);
+        return new Object[]{pattern, query, limit, pattern, query, limit, query, query, limit};
+    }
+}
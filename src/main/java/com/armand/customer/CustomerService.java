@@ -3,24 +3,81 @@ package com.armand.customer;
 import com.armand.exception.DuplicateResourceException;
 import com.armand.exception.RequestValidationException;
 import com.armand.exception.ResourceNotFoundException;
-import org.springframework.beans.factory.annotation.Qualifier;
+import com.armand.routing.ReplicaRead;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "customer.service", histogram = true)
 public class CustomerService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int BATCH_CHUNK_SIZE = 500;
+    static final int DEFAULT_SEARCH_LIMIT = 20;
+    static final int MAX_SEARCH_LIMIT = 100;
+    static final int DEFAULT_QUERY_LIMIT = 100;
+    static final int MAX_QUERY_LIMIT = 1000;
+    static final int MAX_AGE_ADJUSTMENT_IDS = 1000;
+
     private final CustomerDao customerDao;
 
-    public CustomerService(@Qualifier("jdbc") CustomerDao customerDao) {
+    public CustomerService(CustomerDao customerDao) {
         this.customerDao = customerDao;
     }
 
+    @ReplicaRead
     public List<Customer> getAllCustomers() {
         return customerDao.selectAllCustomers();
     }
 
+    @ReplicaRead
+    public List<Customer> queryCustomers(Integer minAge, Integer maxAge, String sort, Integer limit) {
+        return customerDao.selectCustomers(customerQuery(minAge, maxAge, sort, limit));
+    }
+
+    @ReplicaRead
+    public CustomerPage getCustomersPage(String cursor, Integer size) {
+        int limit = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "page size must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+        Integer lastId = cursor == null ? 0 : CustomerCursor.decode(cursor);
+
+        // fetch one extra row to know whether there is a next page without a count query
+        List<Customer> customers = customerDao.selectCustomersAfter(lastId, limit + 1);
+        if (customers.size() <= limit) {
+            return new CustomerPage(customers, null);
+        }
+        List<Customer> page = customers.subList(0, limit);
+        return new CustomerPage(page, CustomerCursor.encode(page.get(limit - 1).getId()));
+    }
+
+    // the transaction keeps the jdbc cursor open while rows are handed to the consumer
+    @ReplicaRead
+    @Transactional(readOnly = true)
+    public void exportCustomers(Consumer<Customer> consumer) {
+        try (Stream<Customer> customers = customerDao.streamAllCustomers()) {
+            customers.forEach(consumer);
+        }
+    }
+
+    @ReplicaRead
     public Customer getCustomer(Integer id) {
         return customerDao
                 .selectCustomerById(id)
@@ -28,56 +85,154 @@ public class CustomerService {
                         () -> new ResourceNotFoundException("customer with id [%s] not found".formatted(id)));
     }
 
-    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
-        // check if email exists
-        String email = customerRegistrationRequest.email();
-        if (customerDao.existsCustomerWithEmail(email)) {
-            throw new DuplicateResourceException("Email already taken");
+    @ReplicaRead
+    public CustomerStats getCustomerStats() {
+        return customerDao.selectCustomerStats();
+    }
+
+    @ReplicaRead
+    public List<Customer> searchCustomers(String query, Integer limit) {
+        String trimmed = query == null ? "" : query.strip();
+        if (trimmed.length() < CustomerSearch.MIN_QUERY_LENGTH) {
+            // shorter queries have no trigram to look up and would scan the table
+            throw new RequestValidationException(
+                    "search query must have at least %s characters".formatted(CustomerSearch.MIN_QUERY_LENGTH));
+        }
+        int max = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (max < 1 || max > MAX_SEARCH_LIMIT) {
+            throw new RequestValidationException(
+                    "search limit must be between 1 and %s".formatted(MAX_SEARCH_LIMIT));
+        }
+        return customerDao.searchCustomers(trimmed, max);
+    }
+
+    static CustomerQuery customerQuery(Integer minAge, Integer maxAge, String sort, Integer limit) {
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new RequestValidationException("minAge must not be greater than maxAge");
+        }
+        CustomerQuery.Sort order;
+        try {
+            order = sort == null ? CustomerQuery.Sort.ID : CustomerQuery.Sort.valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("sort must be one of id, name or age");
+        }
+        int max = limit == null ? DEFAULT_QUERY_LIMIT : limit;
+        if (max < 1 || max > MAX_QUERY_LIMIT) {
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_QUERY_LIMIT));
         }
-        // add
+        return new CustomerQuery(minAge, maxAge, order, max);
+    }
+
+    public Integer addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
         Customer customer =
                 new Customer(
                         customerRegistrationRequest.name(),
                         customerRegistrationRequest.email(),
                         customerRegistrationRequest.age());
-        customerDao.insertCustomer(customer);
+        // the unique email constraint decides, so concurrent registrations cannot both pass a check
+        return customerDao.insertIfEmailAbsent(customer)
+                .orElseThrow(() -> new DuplicateResourceException("Email already taken"));
     }
 
-    public void deleteCustomerById(Integer customerId) {
-        if (!customerDao.existsCustomerById(customerId)) {
-            throw new ResourceNotFoundException("customer with id [%s] not found".formatted(customerId));
+    public List<CustomerBatchResult> addCustomers(Iterator<CustomerRegistrationRequest> requests) {
+        List<CustomerBatchResult> results = new ArrayList<>();
+        List<CustomerRegistrationRequest> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        while (requests.hasNext()) {
+            chunk.add(requests.next());
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                results.addAll(addCustomerChunk(chunk, results.size()));
+                chunk.clear();
+            }
         }
-
-        customerDao.deleteCustomerById(customerId);
+        if (!chunk.isEmpty()) {
+            results.addAll(addCustomerChunk(chunk, results.size()));
+        }
+        return results;
     }
 
-    public void updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest) {
-        Customer customer = getCustomer(customerId);
-
-        boolean changes = false;
-
-        if (updateRequest.name() != null && !updateRequest.name().equals(customer.getName())) {
-            customer.setName(updateRequest.name());
-            changes = true;
+    private List<CustomerBatchResult> addCustomerChunk(
+            List<CustomerRegistrationRequest> chunk, int firstIndex) {
+        // one query for the whole chunk instead of one existsCustomerWithEmail per customer
+        Set<String> emails = chunk.stream()
+                .filter(Objects::nonNull)
+                .map(CustomerRegistrationRequest::email)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = new HashSet<>(customerDao.selectExistingEmails(emails));
+
+        List<CustomerBatchResult> results = new ArrayList<>(chunk.size());
+        List<Customer> customers = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerRegistrationRequest request = chunk.get(i);
+            int index = firstIndex + i;
+            if (request == null
+                    || request.name() == null
+                    || request.email() == null
+                    || request.age() == null) {
+                String email = request == null ? null : request.email();
+                results.add(new CustomerBatchResult(index, email, CustomerBatchResult.Status.INVALID));
+            } else if (!takenEmails.add(request.email())) {
+                results.add(new CustomerBatchResult(
+                        index, request.email(), CustomerBatchResult.Status.DUPLICATE));
+            } else {
+                customers.add(new Customer(request.name(), request.email(), request.age()));
+                results.add(new CustomerBatchResult(
+                        index, request.email(), CustomerBatchResult.Status.CREATED));
+            }
         }
 
-        if (updateRequest.age() != null && !updateRequest.age().equals(customer.getAge())) {
-            customer.setAge(updateRequest.age());
-            changes = true;
+        if (!customers.isEmpty()) {
+            // an email can be taken between selectExistingEmails and the insert
+            Set<String> inserted = customerDao.insertCustomers(customers);
+            results.replaceAll(result -> result.status() == CustomerBatchResult.Status.CREATED
+                    && !inserted.contains(result.email())
+                    ? new CustomerBatchResult(result.index(), result.email(), CustomerBatchResult.Status.DUPLICATE)
+                    : result);
         }
+        return results;
+    }
 
-        if (updateRequest.email() != null && !updateRequest.email().equals(customer.getEmail())) {
-            if (customerDao.existsCustomerWithEmail(updateRequest.email())) {
-                throw new DuplicateResourceException("email already taken");
-            }
-            customer.setEmail(updateRequest.email());
-            changes = true;
+    public void deleteCustomerById(Integer customerId) {
+        if (!customerDao.deleteCustomerById(customerId)) {
+            throw new ResourceNotFoundException("customer with id [%s] not found".formatted(customerId));
         }
+    }
+
+    public Customer updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest) {
+        Customer update = new Customer(
+                customerId, updateRequest.name(), updateRequest.email(), updateRequest.age());
 
-        if (!changes) {
-            throw new RequestValidationException("no data changes found");
+        Optional<Customer> updated;
+        try {
+            updated = customerDao.updateCustomer(update);
+        } catch (DataIntegrityViolationException e) {
+            // only the unique email constraint can be violated by a partial update
+            throw new DuplicateResourceException("email already taken");
         }
 
-        customerDao.updateCustomer(customer);
+        // nothing was written, only now is it worth a second query to tell why
+        return updated.orElseThrow(() -> customerDao.existsCustomerById(customerId)
+                ? new RequestValidationException("no data changes found")
+                : new ResourceNotFoundException("customer with id [%s] not found".formatted(customerId)));
+    }
+
+    public CustomerAgeAdjustmentResult adjustCustomersAge(CustomerAgeAdjustmentRequest request) {
+        checkAgeAdjustment(request);
+        return new CustomerAgeAdjustmentResult(customerDao.adjustCustomersAge(request.ids(), request.delta()));
+    }
+
+    static void checkAgeAdjustment(CustomerAgeAdjustmentRequest request) {
+        List<Integer> ids = request.ids();
+        if (ids == null || ids.isEmpty() || ids.stream().anyMatch(Objects::isNull)) {
+            throw new RequestValidationException("ids must not be empty or contain null");
+        }
+        if (ids.size() > MAX_AGE_ADJUSTMENT_IDS) {
+            throw new RequestValidationException(
+                    "at most %s ids can be adjusted at once".formatted(MAX_AGE_ADJUSTMENT_IDS));
+        }
+        if (request.delta() == null || request.delta() == 0) {
+            throw new RequestValidationException("delta must not be zero");
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.armand.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ages of 100 and over share the last bucket, which has no maxAge
+public record CustomerStats(long customers, List<AgeBucket> ageBuckets) {
+
+    public static final int BUCKETS = 11;
+    static final int BUCKET_WIDTH = 10;
+
+    public record AgeBucket(int minAge, Integer maxAge, long customers) {
+    }
+
+    // same as the customer_age_bucket function of V5
+    public static int bucket(int age) {
+        return Math.min(Math.max(age, 0) / BUCKET_WIDTH, BUCKETS - 1);
+    }
+
+    public static CustomerStats of(long[] customersPerBucket) {
+        List<AgeBucket> buckets = new ArrayList<>(BUCKETS);
+        long customers = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int minAge = bucket * BUCKET_WIDTH;
+            Integer maxAge = bucket == BUCKETS - 1 ? null : minAge + BUCKET_WIDTH - 1;
+            buckets.add(new AgeBucket(minAge, maxAge, customersPerBucket[bucket]));
+            customers += customersPerBucket[bucket];
+        }
+        return new CustomerStats(customers, List.copyOf(buckets));
+    }
+}
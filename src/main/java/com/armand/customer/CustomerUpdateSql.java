@@ -0,0 +1,109 @@
+package com.armand.customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// one statement per combination of changed columns, writing only when a value differs
+final class CustomerUpdateSql {
+
+    static final int NAME = 1;
+    static final int EMAIL = 1 << 1;
+    static final int AGE = 1 << 2;
+
+    private static final String[] COLUMNS = {"name", "email", "age"};
+    private static final CustomerRowMapper ROW_MAPPER = new CustomerRowMapper();
+    private static final String[] STATEMENTS = new String[1 << COLUMNS.length];
+    private static final String[] NUMBERED_STATEMENTS = new String[STATEMENTS.length];
+
+    static {
+        for (int columns = 1; columns < STATEMENTS.length; columns++) {
+            List<String> assignments = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            List<String> placeholders = new ArrayList<>();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if ((columns & (1 << i)) != 0) {
+                    assignments.add(COLUMNS[i] + " = ?");
+                    names.add(COLUMNS[i]);
+                    placeholders.add("?");
+                }
+            }
+            STATEMENTS[columns] =
+                    """
+                    UPDATE customer
+                    SET %s
+                    WHERE id = ?
+                      AND (%s) IS DISTINCT FROM (%s)
+                    RETURNING id, name, email, age
+                    """.formatted(
+                            String.join(", ", assignments),
+                            String.join(", ", names),
+                            String.join(", ", placeholders));
+            NUMBERED_STATEMENTS[columns] = SqlPlaceholders.numbered(STATEMENTS[columns]);
+        }
+    }
+
+    private CustomerUpdateSql() {
+    }
+
+    static int changedColumns(Customer update) {
+        int columns = 0;
+        if (update.getName() != null) {
+            columns |= NAME;
+        }
+        if (update.getEmail() != null) {
+            columns |= EMAIL;
+        }
+        if (update.getAge() != null) {
+            columns |= AGE;
+        }
+        return columns;
+    }
+
+    static String statement(int columns) {
+        return STATEMENTS[columns];
+    }
+
+    static String numberedStatement(int columns) {
+        return NUMBERED_STATEMENTS[columns];
+    }
+
+    static Object[] arguments(Customer update, int columns) {
+        List<Object> values = new ArrayList<>(COLUMNS.length);
+        if ((columns & NAME) != 0) {
+            values.add(update.getName());
+        }
+        if ((columns & EMAIL) != 0) {
+            values.add(update.getEmail());
+        }
+        if ((columns & AGE) != 0) {
+            values.add(update.getAge());
+        }
+        // SET values, the id, then the same values again for the IS DISTINCT FROM guard
+        List<Object> arguments = new ArrayList<>(values.size() * 2 + 1);
+        arguments.addAll(values);
+        arguments.add(update.getId());
+        arguments.addAll(values);
+        return arguments.toArray();
+    }
+
+    static Optional<Customer> update(Connection connection, Customer update) throws SQLException {
+        int columns = changedColumns(update);
+        if (columns == 0) {
+            return Optional.empty();
+        }
+        try (PreparedStatement ps = connection.prepareStatement(statement(columns))) {
+            Object[] arguments = arguments(update, columns);
+            for (int i = 0; i < arguments.length; i++) {
+                ps.setObject(i + 1, arguments[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(ROW_MAPPER.mapRow(rs, 1)) : Optional.empty();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.armand.customer;
+
+public record CustomerView(Integer id, String name, String email, Integer age) {
+
+    public Customer toCustomer() {
+        return new Customer(id, name, email, age);
+    }
+}
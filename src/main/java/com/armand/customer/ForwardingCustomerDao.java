@@ -0,0 +1,96 @@
+package com.armand.customer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public abstract class ForwardingCustomerDao implements CustomerDao {
+
+    protected final CustomerDao delegate;
+
+    protected ForwardingCustomerDao(CustomerDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        return delegate.selectCustomersAfter(lastId, limit);
+    }
+
+    @Override
+    public Stream<Customer> streamAllCustomers() {
+        return delegate.streamAllCustomers();
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        return delegate.selectCustomers(query);
+    }
+
+    @Override
+    public CustomerStats selectCustomerStats() {
+        return delegate.selectCustomerStats();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return delegate.selectCustomerById(id);
+    }
+
+    @Override
+    public List<Customer> searchCustomers(String query, int limit) {
+        return delegate.searchCustomers(query, limit);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        delegate.insertCustomer(customer);
+    }
+
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        return delegate.insertIfEmailAbsent(customer);
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        return delegate.insertCustomers(customers);
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return delegate.existsCustomerWithEmail(email);
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return delegate.selectExistingEmails(emails);
+    }
+
+    @Override
+    public boolean existsCustomerById(Integer id) {
+        return delegate.existsCustomerById(id);
+    }
+
+    @Override
+    public boolean deleteCustomerById(Integer customerId) {
+        return delegate.deleteCustomerById(customerId);
+    }
+
+    @Override
+    public Optional<Customer> updateCustomer(Customer update) {
+        return delegate.updateCustomer(update);
+    }
+
+    @Override
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        return delegate.adjustCustomersAge(ids, delta);
+    }
+}
@@ -0,0 +1,235 @@
+package com.armand.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// timers are registered up front, a call only pays for two clock reads and a histogram update
+public class MeteredCustomerDao extends ForwardingCustomerDao {
+
+    static final String METRIC_NAME = "customer.dao";
+
+    private final Operation selectAllCustomers;
+    private final Operation selectCustomersAfter;
+    private final Operation streamAllCustomers;
+    private final Operation selectCustomers;
+    private final Operation selectCustomerById;
+    private final Operation selectCustomerStats;
+    private final Operation searchCustomers;
+    private final Operation insertCustomer;
+    private final Operation insertIfEmailAbsent;
+    private final Operation insertCustomers;
+    private final Operation existsCustomerWithEmail;
+    private final Operation selectExistingEmails;
+    private final Operation existsCustomerById;
+    private final Operation deleteCustomerById;
+    private final Operation updateCustomer;
+    private final Operation adjustCustomersAge;
+
+    public MeteredCustomerDao(
+            CustomerDao delegate, MeterRegistry registry, String implementation, boolean percentileHistogram) {
+        super(delegate);
+        Function<String, Operation> operation = method -> new Operation(
+                timer(registry, method, implementation, "success", percentileHistogram),
+                timer(registry, method, implementation, "error", percentileHistogram));
+        selectAllCustomers = operation.apply("selectAllCustomers");
+        selectCustomersAfter = operation.apply("selectCustomersAfter");
+        streamAllCustomers = operation.apply("streamAllCustomers");
+        selectCustomers = operation.apply("selectCustomers");
+        selectCustomerById = operation.apply("selectCustomerById");
+        selectCustomerStats = operation.apply("selectCustomerStats");
+        searchCustomers = operation.apply("searchCustomers");
+        insertCustomer = operation.apply("insertCustomer");
+        insertIfEmailAbsent = operation.apply("insertIfEmailAbsent");
+        insertCustomers = operation.apply("insertCustomers");
+        existsCustomerWithEmail = operation.apply("existsCustomerWithEmail");
+        selectExistingEmails = operation.apply("selectExistingEmails");
+        existsCustomerById = operation.apply("existsCustomerById");
+        deleteCustomerById = operation.apply("deleteCustomerById");
+        updateCustomer = operation.apply("updateCustomer");
+        adjustCustomersAge = operation.apply("adjustCustomersAge");
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return selectAllCustomers.record(delegate::selectAllCustomers);
+    }
+
+    @Override
+    public List<Customer> selectCustomersAfter(Integer lastId, int limit) {
+        return selectCustomersAfter.record(() -> delegate.selectCustomersAfter(lastId, limit));
+    }
+
+    @Override
+    public Stream<Customer> streamAllCustomers() {
+        long start = System.nanoTime();
+        Stream<Customer> customers;
+        try {
+            customers = delegate.streamAllCustomers();
+        } catch (RuntimeException e) {
+            streamAllCustomers.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        FailureTrackingSpliterator<Customer> rows = new FailureTrackingSpliterator<>(customers.spliterator());
+        return StreamSupport.stream(rows, customers.isParallel())
+                .onClose(customers::close)
+                .onClose(() -> (rows.failed ? streamAllCustomers.error : streamAllCustomers.success)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public List<Customer> selectCustomers(CustomerQuery query) {
+        return selectCustomers.record(() -> delegate.selectCustomers(query));
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return selectCustomerById.record(() -> delegate.selectCustomerById(id));
+    }
+
+    @Override
+    public CustomerStats selectCustomerStats() {
+        return selectCustomerStats.record(delegate::selectCustomerStats);
+    }
+
+    @Override
+    public List<Customer> searchCustomers(String query, int limit) {
+        return searchCustomers.record(() -> delegate.searchCustomers(query, limit));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        insertCustomer.record(() -> {
+            delegate.insertCustomer(customer);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<Integer> insertIfEmailAbsent(Customer customer) {
+        return insertIfEmailAbsent.record(() -> delegate.insertIfEmailAbsent(customer));
+    }
+
+    @Override
+    public Set<String> insertCustomers(List<Customer> customers) {
+        return insertCustomers.record(() -> delegate.insertCustomers(customers));
+    }
+
+    @Override
+    public boolean existsCustomerWithEmail(String email) {
+        return existsCustomerWithEmail.record(() -> delegate.existsCustomerWithEmail(email));
+    }
+
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+        return selectExistingEmails.record(() -> delegate.selectExistingEmails(emails));
+    }
+
+    @Override
+    public boolean existsCustomerById(Integer id) {
+        return existsCustomerById.record(() -> delegate.existsCustomerById(id));
+    }
+
+    @Override
+    public boolean deleteCustomerById(Integer customerId) {
+        return deleteCustomerById.record(() -> delegate.deleteCustomerById(customerId));
+    }
+
+    @Override
+    public Optional<Customer> updateCustomer(Customer update) {
+        return updateCustomer.record(() -> delegate.updateCustomer(update));
+    }
+
+    @Override
+    public int adjustCustomersAge(Collection<Integer> ids, int delta) {
+        return adjustCustomersAge.record(() -> delegate.adjustCustomersAge(ids, delta));
+    }
+
+    private static Timer timer(
+            MeterRegistry registry, String method, String implementation, String outcome, boolean percentileHistogram) {
+        return Timer.builder(METRIC_NAME)
+                .description("Customer dao calls")
+                .tag("method", method)
+                .tag("implementation", implementation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(percentileHistogram)
+                // trims the exported buckets to the range dao calls actually take
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+
+    // a stream that failed half way is recorded as an error when it is closed
+    private static final class FailureTrackingSpliterator<T> implements Spliterator<T> {
+
+        private final Spliterator<T> rows;
+        private volatile boolean failed;
+
+        private FailureTrackingSpliterator(Spliterator<T> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                return rows.tryAdvance(action);
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            try {
+                rows.forEachRemaining(action);
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            // a split off part would fail untracked, the dao streams are read sequentially anyway
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return rows.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return rows.characteristics();
+        }
+    }
+
+    private record Operation(Timer success, Timer error) {
+
+        <T> T record(Supplier<T> call) {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException e) {
+                error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.armand.customer;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// not thread-safe. slots are only appended and ids only grow, so slots stay sorted by id
+final class OffHeapCustomerTable {
+
+    // arena chunks start small and double up to 64 MiB, an address is chunk << 26 | position
+    private static final int CHUNK_SHIFT = 26;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int FIRST_CHUNK_SIZE = 1 << 16;
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+    private static final long DELETED = -1;
+    private static final int EMPTY = 0;
+
+    private IntBuffer ids;
+    private IntBuffer ages;
+    private IntBuffer emailHashes;
+    private LongBuffer records;
+    private int slots;
+    private int live;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long liveBytes;
+    private long garbageBytes;
+
+    // slot + 1 per entry, EMPTY for free buckets
+    private int[] idIndex;
+    private int[] emailIndex;
+
+    OffHeapCustomerTable(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        allocateColumns(capacity);
+        allocateIndexes(capacity);
+        chunks.add(ByteBuffer.allocateDirect(FIRST_CHUNK_SIZE));
+    }
+
+    int size() {
+        return live;
+    }
+
+    boolean isLive(int slot) {
+        return records.get(slot) != DELETED;
+    }
+
+    int id(int slot) {
+        return ids.get(slot);
+    }
+
+    int age(int slot) {
+        return ages.get(slot);
+    }
+
+    // live or not
+    int firstSlotAfter(int id) {
+        int low = 0;
+        int high = slots;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids.get(middle) <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    int slotCount() {
+        return slots;
+    }
+
+    int slotOfId(int id) {
+        int mask = idIndex.length - 1;
+        for (int bucket = mix(id) & mask; ; bucket = (bucket + 1) & mask) {
+            int entry = idIndex[bucket];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (ids.get(entry - 1) == id) {
+                return entry - 1;
+            }
+        }
+    }
+
+    int slotOfEmail(String email) {
+        int hash = email.hashCode();
+        byte[] bytes = null;
+        int mask = emailIndex.length - 1;
+        for (int bucket = mix(hash) & mask; ; bucket = (bucket + 1) & mask) {
+            int entry = emailIndex[bucket];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            int slot = entry - 1;
+            if (emailHashes.get(slot) == hash) {
+                if (bytes == null) {
+                    bytes = email.getBytes(StandardCharsets.UTF_8);
+                }
+                if (emailEquals(slot, bytes)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    Customer customer(int slot) {
+        long address = records.get(slot);
+        ByteBuffer chunk = chunks.get((int) (address >>> CHUNK_SHIFT));
+        int position = (int) (address & (CHUNK_SIZE - 1));
+        int nameLength = chunk.getInt(position);
+        int emailLength = chunk.getInt(position + Integer.BYTES);
+        int namePosition = position + RECORD_HEADER;
+        return new Customer(
+                ids.get(slot),
+                string(chunk, namePosition, nameLength),
+                string(chunk, namePosition + nameLength, emailLength),
+                ages.get(slot));
+    }
+
+    String name(int slot) {
+        long address = records.get(slot);
+        ByteBuffer chunk = chunks.get((int) (address >>> CHUNK_SHIFT));
+        int position = (int) (address & (CHUNK_SIZE - 1));
+        return string(chunk, position + RECORD_HEADER, chunk.getInt(position));
+    }
+
+    String email(int slot) {
+        long address = records.get(slot);
+        ByteBuffer chunk = chunks.get((int) (address >>> CHUNK_SHIFT));
+        int position = (int) (address & (CHUNK_SIZE - 1));
+        int nameLength = chunk.getInt(position);
+        return string(chunk, position + RECORD_HEADER + nameLength, chunk.getInt(position + Integer.BYTES));
+    }
+
+    // ASCII fields are searched in the arena, only the others are decoded
+    boolean nameOrEmailContains(int slot, String lowerCaseQuery, byte[] asciiQuery) {
+        long address = records.get(slot);
+        ByteBuffer chunk = chunks.get((int) (address >>> CHUNK_SHIFT));
+        int position = (int) (address & (CHUNK_SIZE - 1));
+        int nameLength = chunk.getInt(position);
+        int emailLength = chunk.getInt(position + Integer.BYTES);
+        int namePosition = position + RECORD_HEADER;
+        return contains(chunk, namePosition, nameLength, lowerCaseQuery, asciiQuery)
+                || contains(chunk, namePosition + nameLength, emailLength, lowerCaseQuery, asciiQuery);
+    }
+
+    static byte[] ascii(String lowerCaseQuery) {
+        for (int i = 0; i < lowerCaseQuery.length(); i++) {
+            if (lowerCaseQuery.charAt(i) >= 0x80) {
+                return null;
+            }
+        }
+        return lowerCaseQuery.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // the id must be greater than every id stored so far and the email must not be taken
+    int append(int id, String name, String email, int age) {
+        if (slots == ids.capacity()) {
+            growColumns();
+        }
+        int slot = slots++;
+        ids.put(slot, id);
+        ages.put(slot, age);
+        emailHashes.put(slot, email.hashCode());
+        records.put(slot, writeRecord(name, email));
+        live++;
+        if (live * 4L > idIndex.length * 3L) {
+            allocateIndexes(idIndex.length * 2);
+            reindex();
+        } else {
+            insertEntry(idIndex, slot);
+            insertEntry(emailIndex, slot);
+        }
+        return slot;
+    }
+
+    void update(int slot, String name, String email, int age) {
+        ages.put(slot, age);
+        Customer current = customer(slot);
+        if (current.getName().equals(name) && current.getEmail().equals(email)) {
+            return;
+        }
+        if (!current.getEmail().equals(email)) {
+            removeEntry(emailIndex, slot);
+            emailHashes.put(slot, email.hashCode());
+            insertEntry(emailIndex, slot);
+        }
+        garbageBytes += recordLength(slot);
+        liveBytes -= recordLength(slot);
+        records.put(slot, writeRecord(name, email));
+        compactIfWasteful();
+    }
+
+    // the age column only, the record with name and email stays where it is
+    void updateAge(int slot, int age) {
+        ages.put(slot, age);
+    }
+
+    void delete(int slot) {
+        removeEntry(idIndex, slot);
+        removeEntry(emailIndex, slot);
+        garbageBytes += recordLength(slot);
+        liveBytes -= recordLength(slot);
+        records.put(slot, DELETED);
+        live--;
+        compactIfWasteful();
+    }
+
+    long offHeapBytes() {
+        long columns = (long) ids.capacity() * (3 * Integer.BYTES + Long.BYTES);
+        return columns + chunks.stream().mapToLong(ByteBuffer::capacity).sum();
+    }
+
+    long indexBytes() {
+        return (long) (idIndex.length + emailIndex.length) * Integer.BYTES;
+    }
+
+    long garbageBytes() {
+        return garbageBytes;
+    }
+
+    private boolean emailEquals(int slot, byte[] email) {
+        long address = records.get(slot);
+        ByteBuffer chunk = chunks.get((int) (address >>> CHUNK_SHIFT));
+        int position = (int) (address & (CHUNK_SIZE - 1));
+        int nameLength = chunk.getInt(position);
+        int emailLength = chunk.getInt(position + Integer.BYTES);
+        if (emailLength != email.length) {
+            return false;
+        }
+        int emailPosition = position + RECORD_HEADER + nameLength;
+        for (int i = 0; i < emailLength; i++) {
+            if (chunk.get(emailPosition + i) != email[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int recordLength(int slot) {
+        long address = records.get(slot);
+        ByteBuffer chunk = chunks.get((int) (address >>> CHUNK_SHIFT));
+        int position = (int) (address & (CHUNK_SIZE - 1));
+        return RECORD_HEADER + chunk.getInt(position) + chunk.getInt(position + Integer.BYTES);
+    }
+
+    private long writeRecord(String name, String email) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER + nameBytes.length + emailBytes.length;
+        if (length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("customer record of %s bytes is too large".formatted(length));
+        }
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        if (chunk.remaining() < length) {
+            chunk = ByteBuffer.allocateDirect(Math.min(CHUNK_SIZE, Math.max(length, chunk.capacity() * 2)));
+            chunks.add(chunk);
+        }
+        long address = ((long) (chunks.size() - 1) << CHUNK_SHIFT) | chunk.position();
+        chunk.putInt(nameBytes.length).putInt(emailBytes.length).put(nameBytes).put(emailBytes);
+        liveBytes += length;
+        return address;
+    }
+
+    private static boolean contains(ByteBuffer chunk, int position, int length, String lowerCaseQuery, byte[] asciiQuery) {
+        boolean ascii = asciiQuery != null;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = chunk.get(position + i) >= 0;
+        }
+        if (!ascii) {
+            return CustomerSearch.lowerCase(string(chunk, position, length)).contains(lowerCaseQuery);
+        }
+        for (int start = 0; start + asciiQuery.length <= length; start++) {
+            int i = 0;
+            while (i < asciiQuery.length && lowerCase(chunk.get(position + start + i)) == asciiQuery[i]) {
+                i++;
+            }
+            if (i == asciiQuery.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte lowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static String string(ByteBuffer chunk, int position, int length) {
+        byte[] bytes = new byte[length];
+        chunk.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void growColumns() {
+        IntBuffer oldIds = ids;
+        IntBuffer oldAges = ages;
+        IntBuffer oldEmailHashes = emailHashes;
+        LongBuffer oldRecords = records;
+        allocateColumns(Math.multiplyExact(oldIds.capacity(), 2));
+        ids.put(0, oldIds, 0, slots);
+        ages.put(0, oldAges, 0, slots);
+        emailHashes.put(0, oldEmailHashes, 0, slots);
+        records.put(0, oldRecords, 0, slots);
+    }
+
+    private void allocateColumns(int capacity) {
+        ids = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        ages = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        emailHashes = ByteBuffer.allocateDirect(capacity * Integer.BYTES).asIntBuffer();
+        records = ByteBuffer.allocateDirect(capacity * Long.BYTES).asLongBuffer();
+    }
+
+    private void allocateIndexes(int capacity) {
+        // power of two buckets, kept at most 75% full
+        int buckets = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        idIndex = new int[buckets];
+        emailIndex = new int[buckets];
+    }
+
+    private void reindex() {
+        Arrays.fill(idIndex, EMPTY);
+        Arrays.fill(emailIndex, EMPTY);
+        for (int slot = 0; slot < slots; slot++) {
+            if (isLive(slot)) {
+                insertEntry(idIndex, slot);
+                insertEntry(emailIndex, slot);
+            }
+        }
+    }
+
+    // once garbage outweighs the live data, so the amortized cost per write stays constant
+    private void compactIfWasteful() {
+        boolean wastefulSlots = slots - live > live && slots > 1024;
+        boolean wastefulArena = garbageBytes > liveBytes && garbageBytes > CHUNK_SIZE;
+        if (!wastefulSlots && !wastefulArena) {
+            return;
+        }
+        OffHeapCustomerTable compacted = new OffHeapCustomerTable(live);
+        for (int slot = 0; slot < slots; slot++) {
+            if (isLive(slot)) {
+                Customer customer = customer(slot);
+                compacted.append(customer.getId(), customer.getName(), customer.getEmail(), customer.getAge());
+            }
+        }
+        ids = compacted.ids;
+        ages = compacted.ages;
+        emailHashes = compacted.emailHashes;
+        records = compacted.records;
+        slots = compacted.slots;
+        chunks.clear();
+        chunks.addAll(compacted.chunks);
+        liveBytes = compacted.liveBytes;
+        garbageBytes = 0;
+        idIndex = compacted.idIndex;
+        emailIndex = compacted.emailIndex;
+    }
+
+    private void insertEntry(int[] index, int slot) {
+        int mask = index.length - 1;
+        int bucket = hash(index, slot) & mask;
+        while (index[bucket] != EMPTY) {
+            bucket = (bucket + 1) & mask;
+        }
+        index[bucket] = slot + 1;
+    }
+
+    private void removeEntry(int[] index, int slot) {
+        int mask = index.length - 1;
+        int bucket = hash(index, slot) & mask;
+        while (index[bucket] != slot + 1) {
+            bucket = (bucket + 1) & mask;
+        }
+        // shift back later entries of the probe run so lookups never meet a hole
+        int next = bucket;
+        while (true) {
+            next = (next + 1) & mask;
+            int entry = index[next];
+            if (entry == EMPTY) {
+                break;
+            }
+            int home = hash(index, entry - 1) & mask;
+            boolean canMove = bucket <= next
+                    ? home <= bucket || home > next
+                    : home <= bucket && home > next;
+            if (canMove) {
+                index[bucket] = entry;
+                bucket = next;
+            }
+        }
+        index[bucket] = EMPTY;
+    }
+
+    private int hash(int[] index, int slot) {
+        return mix(index == idIndex ? ids.get(slot) : emailHashes.get(slot));
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
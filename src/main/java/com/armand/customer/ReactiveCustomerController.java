@@ -0,0 +1,161 @@
+package com.armand.customer;
+
+import com.armand.exception.RequestValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("api/v1/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+    private final CustomerJson customerJson;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService, CustomerJson customerJson) {
+        this.customerService = customerService;
+        this.customerJson = customerJson;
+    }
+
+    @GetMapping
+    public Flux<Customer> getCustomers(
+            @RequestParam(value = "minAge", required = false)
+            Integer minAge,
+            @RequestParam(value = "maxAge", required = false)
+            Integer maxAge,
+            @RequestParam(value = "sort", required = false)
+            String sort,
+            @RequestParam(value = "limit", required = false)
+            Integer limit) {
+
+        if (minAge == null && maxAge == null && sort == null && limit == null) {
+            return customerService.getAllCustomers();
+        }
+        return customerService.queryCustomers(minAge, maxAge, sort, limit);
+    }
+
+    @GetMapping("page")
+    public Mono<ResponseEntity<CustomerPage>> getCustomersPage(
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+            @RequestParam(value = "size", required = false)
+            Integer size,
+            ServerHttpRequest request) {
+
+        return customerService.getCustomersPage(cursor, size).map(page -> {
+            if (page.nextCursor() == null) {
+                return ResponseEntity.ok(page);
+            }
+            String next = UriComponentsBuilder.fromHttpRequest(request)
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .toUriString();
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next))
+                    .body(page);
+        });
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Customer> exportCustomers() {
+        // a cancelled response (client gone) cancels the query
+        return customerService.getAllCustomers();
+    }
+
+    @GetMapping("stats")
+    public Mono<CustomerStats> getCustomerStats() {
+        return customerService.getCustomerStats();
+    }
+
+    @GetMapping("search")
+    public Flux<Customer> searchCustomers(
+            @RequestParam("q")
+            String query,
+            @RequestParam(value = "limit", required = false)
+            Integer limit) {
+
+        return customerService.searchCustomers(query, limit);
+    }
+
+    @GetMapping("{customerId}")
+    public Mono<Customer> getCustomer(
+            @PathVariable("customerId")
+            Integer customerId) {
+
+        return customerService.getCustomer(customerId);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> registerCustomer(
+            @RequestBody
+            CustomerRegistrationRequest registration,
+            ServerHttpRequest request) {
+        return customerService.addCustomer(registration).map(id -> ResponseEntity.ok()
+                .location(UriComponentsBuilder.fromHttpRequest(request)
+                        .path("/{customerId}")
+                        .buildAndExpand(id)
+                        .toUri())
+                .build());
+    }
+
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<CustomerBatchResult> registerCustomers(
+            @RequestBody
+            Flux<JsonNode> requests) {
+        // read as trees, decoding to requests would drop null elements and shift the indexes after them
+        return customerService.addCustomers(requests.map(this::registrationRequest));
+    }
+
+    private Optional<CustomerRegistrationRequest> registrationRequest(JsonNode request) {
+        try {
+            return Optional.ofNullable(customerJson.registrationReader().readValue(request));
+        } catch (JsonProcessingException e) {
+            throw new RequestValidationException("malformed customer batch: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostMapping(value = "age-adjustments", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<CustomerAgeAdjustmentResult> adjustCustomersAge(
+            @RequestBody
+            CustomerAgeAdjustmentRequest request) {
+        return customerService.adjustCustomersAge(request);
+    }
+
+    @DeleteMapping("{customerId}")
+    public Mono<Void> deleteCustomer(
+            @PathVariable("customerId")
+            Integer id) {
+        return customerService.deleteCustomerById(id);
+    }
+
+    @PutMapping("{customerId}")
+    public Mono<Void> updateCustomer(
+            @PathVariable("customerId")
+            Integer customerId,
+            @RequestBody
+            CustomerUpdateRequest updateRequest) {
+        return customerService.updateCustomer(customerId, updateRequest).then();
+    }
+}
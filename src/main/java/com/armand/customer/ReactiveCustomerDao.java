@@ -0,0 +1,33 @@
+package com.armand.customer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveCustomerDao {
+
+    Flux<Customer> selectAllCustomers();
+
+    Flux<Customer> selectCustomersAfter(Integer lastId, int limit);
+
+    Flux<Customer> selectCustomers(CustomerQuery query);
+
+    Mono<Customer> selectCustomerById(Integer id);
+
+    Mono<CustomerStats> selectCustomerStats();
+
+    Flux<Customer> searchCustomers(String query, int limit);
+
+    // completes empty when the email is taken
+    Mono<Integer> insertIfEmailAbsent(Customer customer);
+
+    Mono<Boolean> existsCustomerById(Integer id);
+
+    Mono<Boolean> deleteCustomerById(Integer customerId);
+
+    // completes empty when no customer with that id needed a change
+    Mono<Customer> updateCustomer(Customer update);
+
+    Mono<Integer> adjustCustomersAge(Collection<Integer> ids, int delta);
+}
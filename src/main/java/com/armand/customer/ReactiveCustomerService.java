@@ -0,0 +1,129 @@
+package com.armand.customer;
+
+import com.armand.exception.DuplicateResourceException;
+import com.armand.exception.RequestValidationException;
+import com.armand.exception.ResourceNotFoundException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerDao customerDao;
+
+    public ReactiveCustomerService(ReactiveCustomerDao customerDao) {
+        this.customerDao = customerDao;
+    }
+
+    public Flux<Customer> getAllCustomers() {
+        return customerDao.selectAllCustomers();
+    }
+
+    public Flux<Customer> queryCustomers(Integer minAge, Integer maxAge, String sort, Integer limit) {
+        return Mono.fromCallable(() -> CustomerService.customerQuery(minAge, maxAge, sort, limit))
+                .flatMapMany(customerDao::selectCustomers);
+    }
+
+    public Mono<CustomerPage> getCustomersPage(String cursor, Integer size) {
+        int limit = size == null ? CustomerService.DEFAULT_PAGE_SIZE : size;
+        if (limit < 1 || limit > CustomerService.MAX_PAGE_SIZE) {
+            return Mono.error(new RequestValidationException(
+                    "page size must be between 1 and %s".formatted(CustomerService.MAX_PAGE_SIZE)));
+        }
+        Integer lastId = cursor == null ? 0 : CustomerCursor.decode(cursor);
+
+        // fetch one extra row to know whether there is a next page without a count query
+        return customerDao.selectCustomersAfter(lastId, limit + 1)
+                .collectList()
+                .map(customers -> {
+                    if (customers.size() <= limit) {
+                        return new CustomerPage(customers, null);
+                    }
+                    var page = customers.subList(0, limit);
+                    return new CustomerPage(page, CustomerCursor.encode(page.get(limit - 1).getId()));
+                });
+    }
+
+    public Mono<Customer> getCustomer(Integer id) {
+        return customerDao.selectCustomerById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<CustomerStats> getCustomerStats() {
+        return customerDao.selectCustomerStats();
+    }
+
+    public Flux<Customer> searchCustomers(String query, Integer limit) {
+        String trimmed = query == null ? "" : query.strip();
+        if (trimmed.length() < CustomerSearch.MIN_QUERY_LENGTH) {
+            return Flux.error(new RequestValidationException(
+                    "search query must have at least %s characters".formatted(CustomerSearch.MIN_QUERY_LENGTH)));
+        }
+        int max = limit == null ? CustomerService.DEFAULT_SEARCH_LIMIT : limit;
+        if (max < 1 || max > CustomerService.MAX_SEARCH_LIMIT) {
+            return Flux.error(new RequestValidationException(
+                    "search limit must be between 1 and %s".formatted(CustomerService.MAX_SEARCH_LIMIT)));
+        }
+        return customerDao.searchCustomers(trimmed, max);
+    }
+
+    public Mono<Integer> addCustomer(CustomerRegistrationRequest request) {
+        Customer customer = new Customer(request.name(), request.email(), request.age());
+        return customerDao.insertIfEmailAbsent(customer)
+                .switchIfEmpty(Mono.error(() -> new DuplicateResourceException("Email already taken")));
+    }
+
+    // a null element arrives empty, a Flux carries no nulls
+    public Flux<CustomerBatchResult> addCustomers(Flux<Optional<CustomerRegistrationRequest>> requests) {
+        return requests.index().concatMap(indexed -> {
+            int index = indexed.getT1().intValue();
+            CustomerRegistrationRequest request = indexed.getT2().orElse(null);
+            if (request == null
+                    || request.name() == null
+                    || request.email() == null
+                    || request.age() == null) {
+                String email = request == null ? null : request.email();
+                return Mono.just(new CustomerBatchResult(index, email, CustomerBatchResult.Status.INVALID));
+            }
+            return customerDao.insertIfEmailAbsent(new Customer(request.name(), request.email(), request.age()))
+                    .map(id -> new CustomerBatchResult(index, request.email(), CustomerBatchResult.Status.CREATED))
+                    .defaultIfEmpty(new CustomerBatchResult(index, request.email(), CustomerBatchResult.Status.DUPLICATE));
+        });
+    }
+
+    public Mono<Void> deleteCustomerById(Integer customerId) {
+        return customerDao.deleteCustomerById(customerId)
+                .flatMap(deleted -> deleted ? Mono.<Void>empty() : Mono.error(notFound(customerId)));
+    }
+
+    public Mono<Customer> updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest) {
+        Customer update = new Customer(
+                customerId, updateRequest.name(), updateRequest.email(), updateRequest.age());
+
+        return customerDao.updateCustomer(update)
+                // only the unique email constraint can be violated by a partial update
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new DuplicateResourceException("email already taken"))
+                // nothing was written, only now is it worth a second query to tell why
+                .switchIfEmpty(Mono.defer(() -> customerDao.existsCustomerById(customerId)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new RequestValidationException("no data changes found")
+                                : notFound(customerId)))));
+    }
+
+    public Mono<CustomerAgeAdjustmentResult> adjustCustomersAge(CustomerAgeAdjustmentRequest request) {
+        return Mono.fromRunnable(() -> CustomerService.checkAgeAdjustment(request))
+                .then(Mono.defer(() -> customerDao.adjustCustomersAge(request.ids(), request.delta())))
+                .map(CustomerAgeAdjustmentResult::new);
+    }
+
+    private static ResourceNotFoundException notFound(Integer id) {
+        return new ResourceNotFoundException("customer with id [%s] not found".formatted(id));
+    }
+}
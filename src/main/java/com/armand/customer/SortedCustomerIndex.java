@@ -0,0 +1,60 @@
+package com.armand.customer;
+
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+final class SortedCustomerIndex {
+
+    private static final int STRIPES = 64;
+
+    private final NavigableSet<Customer> byAge = new ConcurrentSkipListSet<>(CustomerQuery.Sort.AGE.comparator());
+    private final NavigableSet<Customer> byName = new ConcurrentSkipListSet<>(CustomerQuery.Sort.NAME.comparator());
+    private final ConcurrentHashMap<Integer, Customer> indexed = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+
+    SortedCustomerIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // the lookup must return the stored instance, which is never mutated
+    void index(int id, IntFunction<Customer> lookup) {
+        synchronized (locks[Math.floorMod(id, STRIPES)]) {
+            Customer customer = lookup.apply(id);
+            Customer previous = customer == null ? indexed.remove(id) : indexed.put(id, customer);
+            if (previous == customer) {
+                return;
+            }
+            if (previous != null) {
+                byAge.remove(previous);
+                byName.remove(previous);
+            }
+            if (customer != null) {
+                byAge.add(customer);
+                byName.add(customer);
+            }
+        }
+    }
+
+    // other filters than the lower age bound are up to the caller
+    Stream<Customer> ordered(CustomerQuery query) {
+        int minAge = query.minAge() == null ? Integer.MIN_VALUE : query.minAge();
+        int maxAge = query.maxAge() == null ? Integer.MAX_VALUE : query.maxAge();
+        return switch (query.sort()) {
+            case AGE -> minAge > maxAge
+                    ? Stream.empty()
+                    : byAge.subSet(bound(Integer.MIN_VALUE, minAge), true, bound(Integer.MAX_VALUE, maxAge), true).stream();
+            case NAME -> byName.stream();
+            case ID -> throw new IllegalArgumentException("customers are stored by id");
+        };
+    }
+
+    // sorts before (MIN_VALUE) or after (MAX_VALUE) every customer of that age
+    private static Customer bound(int id, int age) {
+        return new Customer(id, null, null, age);
+    }
+}
@@ -0,0 +1,21 @@
+package com.armand.customer;
+
+final class SqlPlaceholders {
+
+    private SqlPlaceholders() {
+    }
+
+    // postgres' $1, $2, ... for drivers that do not rewrite ?, such as r2dbc
+    static String numbered(String statement) {
+        StringBuilder numbered = new StringBuilder(statement.length() + 8);
+        int placeholder = 0;
+        for (char c : statement.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++placeholder);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.armand.customer;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+// candidates only, the ids of the query's rarest window still have to be checked against the customers
+final class TrigramIndex {
+
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, String> indexedText = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+
+    TrigramIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // called after every write with the customer read back, null once deleted, so the last writer wins
+    void index(int id, IntFunction<Customer> lookup) {
+        synchronized (locks[Math.floorMod(id, STRIPES)]) {
+            Customer customer = lookup.apply(id);
+            String text = customer == null ? null : text(customer);
+            String previous = text == null ? indexedText.remove(id) : indexedText.put(id, text);
+            if (previous != null && !previous.equals(text)) {
+                windows(previous).forEach(window -> postings.computeIfPresent(window, (key, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                }));
+            }
+            if (text != null) {
+                windows(text).forEach(window -> postings.compute(window, (key, ids) -> {
+                    Set<Integer> updated = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    updated.add(id);
+                    return updated;
+                }));
+            }
+        }
+    }
+
+    // null when the query is too short to narrow anything down
+    Collection<Integer> candidates(String lowerCaseQuery) {
+        if (lowerCaseQuery.length() < 3) {
+            return null;
+        }
+        Set<Integer> rarest = null;
+        for (int i = 0; i + 3 <= lowerCaseQuery.length(); i++) {
+            Set<Integer> ids = postings.get(lowerCaseQuery.substring(i, i + 3));
+            if (ids == null) {
+                return Set.of();
+            }
+            if (rarest == null || ids.size() < rarest.size()) {
+                rarest = ids;
+            }
+        }
+        return rarest;
+    }
+
+    int trigramCount() {
+        return postings.size();
+    }
+
+    private static String text(Customer customer) {
+        // a separator no query window can span, name and email are matched separately
+        return CustomerSearch.lowerCase(customer.getName()) + '\n' + CustomerSearch.lowerCase(customer.getEmail());
+    }
+
+    private static Set<String> windows(String text) {
+        Set<String> windows = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            String window = text.substring(i, i + 3);
+            if (window.indexOf('\n') < 0) {
+                windows.add(window);
+            }
+        }
+        return windows;
+    }
+}
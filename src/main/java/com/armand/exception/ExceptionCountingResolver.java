@@ -0,0 +1,53 @@
+package com.armand.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ExceptionCountingResolver implements HandlerExceptionResolver, Ordered {
+
+    static final String METRIC_NAME = "customer.exceptions";
+
+    private final Map<Class<?>, Counter> counters;
+
+    public ExceptionCountingResolver(MeterRegistry registry) {
+        // registered up front so every series is exported, at zero until the first error
+        this.counters = List.of(
+                        DuplicateResourceException.class,
+                        ResourceNotFoundException.class,
+                        RequestValidationException.class)
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), type -> Counter.builder(METRIC_NAME)
+                        .description("Application exceptions returned to clients")
+                        .tag("exception", type.getSimpleName())
+                        .register(registry)));
+    }
+
+    @Override
+    public ModelAndView resolveException(
+            HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Counter counter = counters.get(ex.getClass());
+        if (counter != null) {
+            counter.increment();
+        }
+        return null;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,94 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerJson;
+import com.armand.customer.CustomerRegistrationRequest;
+import com.armand.customer.CustomerUpdateRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+public class HttpLoadTarget implements LoadTarget {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final URI customersUri;
+    private final URI customerUri;
+    private final CustomerJson customerJson;
+
+    public HttpLoadTarget(HttpClient httpClient, URI baseUrl, CustomerJson customerJson) {
+        this.httpClient = httpClient;
+        // relative paths against a base ending in a slash keep a context path of the base url
+        URI base = baseUrl.getPath().endsWith("/") ? baseUrl : URI.create(baseUrl + "/");
+        // spring 6 no longer matches a trailing slash, so the collection has no slash and the items resolve below it
+        this.customersUri = base.resolve("api/v1/customers");
+        this.customerUri = base.resolve("api/v1/customers/");
+        this.customerJson = customerJson;
+    }
+
+    @Override
+    public boolean read(int id) {
+        return found(send(HttpRequest.newBuilder(customerUri.resolve(String.valueOf(id))).GET()));
+    }
+
+    @Override
+    public int register(CustomerRegistrationRequest request) {
+        HttpResponse<Void> response = send(HttpRequest.newBuilder(customersUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(customerJson.registrationWriter(), request))));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("registration failed with status " + response.statusCode());
+        }
+        String location = response.headers().firstValue("Location")
+                .orElseThrow(() -> new IllegalStateException("registration response has no Location header"));
+        return Integer.parseInt(location.substring(location.lastIndexOf('/') + 1));
+    }
+
+    @Override
+    public boolean update(int id, CustomerUpdateRequest request) {
+        return found(send(HttpRequest.newBuilder(customerUri.resolve(String.valueOf(id)))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(json(customerJson.updateWriter(), request)))));
+    }
+
+    @Override
+    public boolean delete(int id) {
+        return found(send(HttpRequest.newBuilder(customerUri.resolve(String.valueOf(id))).DELETE()));
+    }
+
+    private HttpResponse<Void> send(HttpRequest.Builder request) {
+        try {
+            return httpClient.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted", e);
+        }
+    }
+
+    private static boolean found(HttpResponse<Void> response) {
+        return switch (response.statusCode()) {
+            case 200 -> true;
+            case 404 -> false;
+            default -> throw new IllegalStateException(
+                    "%s %s failed with status %s".formatted(
+                            response.request().method(), response.uri(), response.statusCode()));
+        };
+    }
+
+    private static byte[] json(ObjectWriter writer, Object request) {
+        try {
+            return writer.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.armand.loadgen;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public interface KeyChooser {
+
+    int next();
+
+    static KeyChooser uniform(int keys) {
+        return () -> ThreadLocalRandom.current().nextInt(keys);
+    }
+
+    static KeyChooser zipfian(int keys, double exponent) {
+        return new ZipfianKeyChooser(keys, exponent);
+    }
+}
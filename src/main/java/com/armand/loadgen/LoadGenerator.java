@@ -0,0 +1,215 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerRegistrationRequest;
+import com.armand.customer.CustomerUpdateRequest;
+import com.github.javafaker.Faker;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+// with a rate, latency counts from when an operation should have started, so a stalled server shows in the
+// percentiles (coordinated omission). an unmeasured registration takes over every deleted key
+public class LoadGenerator {
+
+    private final LoadTarget target;
+    private final LoadGeneratorProperties properties;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    public LoadGenerator(LoadTarget target, LoadGeneratorProperties properties) {
+        this.target = target;
+        this.properties = properties;
+        LoadGeneratorProperties.Mix mix = properties.mix();
+        this.operations = Operation.values();
+        int[] weights = {mix.read(), mix.write(), mix.update(), mix.delete()};
+        this.cumulativeWeights = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("operation weights can not be negative");
+            }
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0 || properties.concurrency() < 1 || properties.customers() < 1) {
+            throw new IllegalArgumentException("load generation needs an operation mix, threads and customers");
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        AtomicLong sequence = new AtomicLong();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(properties.concurrency(), runnable ->
+                new Thread(runnable, "loadgen-" + threads.incrementAndGet()));
+        try {
+            // faker instances are slow to create and not meant to be shared, one per thread
+            List<Faker> fakers = IntStream.range(0, properties.concurrency()).mapToObj(i -> new Faker()).toList();
+            AtomicIntegerArray keys = seed(executor, fakers, runId, sequence);
+            KeyChooser keyChooser = switch (properties.keyDistribution()) {
+                case UNIFORM -> KeyChooser.uniform(keys.length());
+                case ZIPFIAN -> KeyChooser.zipfian(keys.length(), properties.zipfianExponent());
+            };
+            return measure(executor, fakers, new Run(runId, sequence, keys, keyChooser));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private AtomicIntegerArray seed(ExecutorService executor, List<Faker> fakers, String runId, AtomicLong sequence)
+            throws InterruptedException {
+        AtomicIntegerArray keys = new AtomicIntegerArray(properties.customers());
+        int concurrency = properties.concurrency();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < concurrency; worker++) {
+            int first = worker;
+            Faker faker = fakers.get(worker);
+            tasks.add(executor.submit(() -> {
+                for (int key = first; key < keys.length(); key += concurrency) {
+                    keys.set(key, target.register(newCustomer(faker, runId, sequence)));
+                }
+            }));
+        }
+        await(tasks);
+        return keys;
+    }
+
+    private LoadReport measure(ExecutorService executor, List<Faker> fakers, Run run) throws InterruptedException {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> notFound = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            recorders.put(operation, new Recorder(3));
+            notFound.put(operation, new LongAdder());
+            errors.put(operation, new LongAdder());
+        }
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        int concurrency = properties.concurrency();
+        long interval = properties.rate() > 0 ? concurrency * 1_000_000_000L / properties.rate() : 0;
+        long start = System.nanoTime();
+        long measureFrom = start + properties.warmup().toNanos();
+        long end = measureFrom + properties.duration().toNanos();
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int worker = 0; worker < concurrency; worker++) {
+            // spread the scheduled starts of the threads over one interval
+            long offset = interval * worker / concurrency;
+            Faker faker = fakers.get(worker);
+            tasks.add(executor.submit(() -> {
+                long intended = start + offset;
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (interval > 0) {
+                        intended += interval;
+                        for (long now = System.nanoTime(); now < intended; now = System.nanoTime()) {
+                            LockSupport.parkNanos(intended - now);
+                        }
+                    } else {
+                        intended = System.nanoTime();
+                    }
+                    if (intended >= end) {
+                        return;
+                    }
+                    Operation operation = nextOperation();
+                    int key = run.keyChooser().next();
+                    boolean found = true;
+                    Throwable error = null;
+                    try {
+                        found = execute(operation, key, faker, run);
+                    } catch (RuntimeException e) {
+                        error = e;
+                    }
+                    long latency = System.nanoTime() - intended;
+                    if (intended >= measureFrom) {
+                        recorders.get(operation).recordValue(latency);
+                        if (error != null) {
+                            errors.get(operation).increment();
+                            firstError.compareAndSet(null, error);
+                        } else if (!found) {
+                            notFound.get(operation).increment();
+                        }
+                    }
+                    if (operation == Operation.DELETE) {
+                        try {
+                            run.keys().set(key, target.register(newCustomer(faker, run.runId(), run.sequence())));
+                        } catch (RuntimeException e) {
+                            errors.get(operation).increment();
+                            firstError.compareAndSet(null, e);
+                        }
+                    }
+                }
+            }));
+        }
+        await(tasks);
+
+        Map<Operation, LoadReport.OperationResult> results = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            results.put(operation, new LoadReport.OperationResult(
+                    notFound.get(operation).sum(),
+                    errors.get(operation).sum(),
+                    recorders.get(operation).getIntervalHistogram()));
+        }
+        Throwable error = firstError.get();
+        return new LoadReport(properties.duration(), results, error == null ? null : error.toString());
+    }
+
+    private boolean execute(Operation operation, int key, Faker faker, Run run) {
+        return switch (operation) {
+            case READ -> target.read(run.keys().get(key));
+            case WRITE -> {
+                run.keys().set(key, target.register(newCustomer(faker, run.runId(), run.sequence())));
+                yield true;
+            }
+            case UPDATE -> target.update(run.keys().get(key), new CustomerUpdateRequest(
+                    faker.name().fullName() + " " + run.sequence().incrementAndGet(),
+                    null,
+                    ThreadLocalRandom.current().nextInt(16, 99)));
+            case DELETE -> target.delete(run.keys().get(key));
+        };
+    }
+
+    private Operation nextOperation() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static CustomerRegistrationRequest newCustomer(Faker faker, String runId, AtomicLong sequence) {
+        return new CustomerRegistrationRequest(
+                faker.name().fullName(),
+                "loadgen-%s-%s@example.com".formatted(runId, sequence.incrementAndGet()),
+                ThreadLocalRandom.current().nextInt(16, 99));
+    }
+
+    private static void await(List<Future<?>> tasks) throws InterruptedException {
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("load generation failed", e.getCause());
+            }
+        }
+    }
+
+    private record Run(String runId, AtomicLong sequence, AtomicIntegerArray keys, KeyChooser keyChooser) {}
+}
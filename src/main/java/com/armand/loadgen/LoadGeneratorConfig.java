@@ -0,0 +1,53 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerJson;
+import com.armand.customer.CustomerService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+
+/**
+ * Load generation mode, off unless {@code loadgen.enabled=true}:
+ * <pre>
+ * java -jar app.jar --loadgen.enabled=true --loadgen.concurrency=16 --loadgen.duration=2m
+ * java -jar app.jar --loadgen.enabled=true --loadgen.target=http --loadgen.base-url=http://staging:8080 \
+ *     --spring.main.web-application-type=none
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(name = "loadgen.enabled", havingValue = "true")
+@EnableConfigurationProperties(LoadGeneratorProperties.class)
+public class LoadGeneratorConfig {
+
+    @Bean
+    LoadTarget loadTarget(LoadGeneratorProperties properties, CustomerService customerService, CustomerJson customerJson) {
+        return switch (properties.target()) {
+            case SERVICE -> new ServiceLoadTarget(customerService);
+            case HTTP -> new HttpLoadTarget(HttpClient.newHttpClient(), properties.baseUrl(), customerJson);
+        };
+    }
+
+    @Bean
+    CommandLineRunner loadGeneratorRunner(
+            LoadTarget loadTarget,
+            LoadGeneratorProperties properties,
+            ConfigurableApplicationContext context) {
+        return args -> {
+            System.out.printf("load generation: %s target, %s threads, %s warmup, %s measured, %s customers, %s keys%n",
+                    properties.target(), properties.concurrency(), properties.warmup(), properties.duration(),
+                    properties.customers(), properties.keyDistribution());
+            LoadReport report = new LoadGenerator(loadTarget, properties).run();
+            System.out.print(report.format());
+            if (properties.exitOnCompletion()) {
+                int exitCode = SpringApplication.exit(context, () -> report.errors() > 0 ? 1 : 0);
+                System.exit(exitCode);
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.armand.loadgen;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+
+@ConfigurationProperties("loadgen")
+public record LoadGeneratorProperties(
+        boolean enabled,
+        @DefaultValue("service") Target target,
+        @DefaultValue("http://localhost:8080") URI baseUrl,
+        @DefaultValue("8") int concurrency,
+        @DefaultValue("60s") Duration duration,
+        @DefaultValue("10s") Duration warmup,
+        @DefaultValue("0") int rate,
+        @DefaultValue("10000") int customers,
+        @DefaultValue("zipfian") KeyDistribution keyDistribution,
+        @DefaultValue("0.99") double zipfianExponent,
+        @DefaultValue Mix mix,
+        @DefaultValue("true") boolean exitOnCompletion) {
+
+    public enum Target {
+        SERVICE, HTTP
+    }
+
+    public enum KeyDistribution {
+        UNIFORM, ZIPFIAN
+    }
+
+    public record Mix(
+            @DefaultValue("70") int read,
+            @DefaultValue("10") int write,
+            @DefaultValue("15") int update,
+            @DefaultValue("5") int delete) {}
+}
@@ -0,0 +1,71 @@
+package com.armand.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+// latencies in nanoseconds
+public record LoadReport(
+        Duration duration,
+        Map<Operation, OperationResult> operations,
+        String firstError) {
+
+    public record OperationResult(long notFound, long errors, Histogram latencies) {
+
+        public long count() {
+            return latencies.getTotalCount();
+        }
+    }
+
+    public long count() {
+        return operations.values().stream().mapToLong(OperationResult::count).sum();
+    }
+
+    public long errors() {
+        return operations.values().stream().mapToLong(OperationResult::errors).sum();
+    }
+
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append("%-8s %10s %10s %10s %8s %9s %9s %9s %9s %9s%n".formatted(
+                "op", "count", "ops/s", "not found", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        Histogram total = null;
+        for (Map.Entry<Operation, OperationResult> entry : operations.entrySet()) {
+            OperationResult result = entry.getValue();
+            report.append(row(entry.getKey().name().toLowerCase(), result.latencies(), result.notFound(), result.errors()));
+            if (total == null) {
+                total = result.latencies().copy();
+            } else {
+                total.add(result.latencies());
+            }
+        }
+        if (total != null) {
+            long notFound = operations.values().stream().mapToLong(OperationResult::notFound).sum();
+            report.append(row("total", total, notFound, errors()));
+        }
+        if (firstError != null) {
+            report.append("first error: ").append(firstError).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private String row(String operation, Histogram latencies, long notFound, long errors) {
+        double seconds = duration.toNanos() / 1e9;
+        return "%-8s %10d %10.1f %10d %8d %9.3f %9.3f %9.3f %9.3f %9.3f%n".formatted(
+                operation,
+                latencies.getTotalCount(),
+                latencies.getTotalCount() / seconds,
+                notFound,
+                errors,
+                millis(latencies, 50),
+                millis(latencies, 90),
+                millis(latencies, 99),
+                millis(latencies, 99.9),
+                latencies.getMaxValue() / 1e6);
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1e6;
+    }
+}
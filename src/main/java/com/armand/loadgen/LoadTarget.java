@@ -0,0 +1,16 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerRegistrationRequest;
+import com.armand.customer.CustomerUpdateRequest;
+
+// keyed operations return false when the customer does not exist
+public interface LoadTarget {
+
+    boolean read(int id);
+
+    int register(CustomerRegistrationRequest request);
+
+    boolean update(int id, CustomerUpdateRequest request);
+
+    boolean delete(int id);
+}
@@ -0,0 +1,5 @@
+package com.armand.loadgen;
+
+public enum Operation {
+    READ, WRITE, UPDATE, DELETE
+}
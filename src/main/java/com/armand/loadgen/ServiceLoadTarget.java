@@ -0,0 +1,50 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerRegistrationRequest;
+import com.armand.customer.CustomerService;
+import com.armand.customer.CustomerUpdateRequest;
+import com.armand.exception.ResourceNotFoundException;
+
+public class ServiceLoadTarget implements LoadTarget {
+
+    private final CustomerService customerService;
+
+    public ServiceLoadTarget(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @Override
+    public boolean read(int id) {
+        try {
+            customerService.getCustomer(id);
+            return true;
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int register(CustomerRegistrationRequest request) {
+        return customerService.addCustomer(request);
+    }
+
+    @Override
+    public boolean update(int id, CustomerUpdateRequest request) {
+        try {
+            customerService.updateCustomer(id, request);
+            return true;
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean delete(int id) {
+        try {
+            customerService.deleteCustomerById(id);
+            return true;
+        } catch (ResourceNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.armand.loadgen;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// as in YCSB: index i is picked with a probability proportional to 1 / (i + 1)^exponent
+class ZipfianKeyChooser implements KeyChooser {
+
+    private final int keys;
+    private final double exponent;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+
+    ZipfianKeyChooser(int keys, double exponent) {
+        if (keys < 1 || exponent <= 0 || exponent >= 1) {
+            throw new IllegalArgumentException(
+                    "zipfian needs at least one key and an exponent in (0, 1), got [%s] and [%s]"
+                            .formatted(keys, exponent));
+        }
+        this.keys = keys;
+        this.exponent = exponent;
+        this.zetaN = zeta(keys, exponent);
+        this.alpha = 1 / (1 - exponent);
+        this.eta = (1 - Math.pow(2.0 / keys, 1 - exponent)) / (1 - zeta(2, exponent) / zetaN);
+    }
+
+    @Override
+    public int next() {
+        double u = ThreadLocalRandom.current().nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) {
+            return 0;
+        }
+        if (uz < 1 + Math.pow(0.5, exponent)) {
+            return Math.min(1, keys - 1);
+        }
+        return Math.min(keys - 1, (int) (keys * Math.pow(eta * u - eta + 1, alpha)));
+    }
+
+    private static double zeta(long n, double exponent) {
+        double sum = 0;
+        for (long i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, exponent);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,42 @@
+package com.armand.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// events more severe than level always pass
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private double rate = 1.0;
+    private Level level = Level.DEBUG;
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (!isStarted() || event.getLevel().toInt() > level.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate
+                ? FilterReply.NEUTRAL
+                : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (rate < 0 || rate > 1) {
+            addError("sampling rate must be between 0 and 1, was " + rate);
+            return;
+        }
+        super.start();
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.DEBUG);
+    }
+}
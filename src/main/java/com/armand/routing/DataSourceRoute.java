@@ -0,0 +1,42 @@
+package com.armand.routing;
+
+public final class DataSourceRoute {
+
+    private static final ThreadLocal<Boolean> READ_ONLY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private static final Scope NESTED = () -> {
+    };
+    private static final Scope READ_ONLY_SCOPE = READ_ONLY::remove;
+    private static final Scope PRIMARY_PINNED_SCOPE = PRIMARY_PINNED::remove;
+
+    private DataSourceRoute() {
+    }
+
+    public static boolean useReplica() {
+        return READ_ONLY.get() != null && PRIMARY_PINNED.get() == null;
+    }
+
+    public static Scope readOnly() {
+        return enter(READ_ONLY, READ_ONLY_SCOPE);
+    }
+
+    public static Scope pinnedToPrimary() {
+        return enter(PRIMARY_PINNED, PRIMARY_PINNED_SCOPE);
+    }
+
+    private static Scope enter(ThreadLocal<Boolean> flag, Scope scope) {
+        // nested scopes leave the flag to the outermost one
+        if (flag.get() != null) {
+            return NESTED;
+        }
+        flag.set(Boolean.TRUE);
+        return scope;
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
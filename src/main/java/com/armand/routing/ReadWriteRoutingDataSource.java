@@ -0,0 +1,93 @@
+package com.armand.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// a replica marked down stays down until the ReplicaMonitor sees it healthy again
+public class ReadWriteRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    private static final String CONNECTION_EXCEPTION = "08";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        super(primary);
+        this.replicas = List.copyOf(replicas);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceRoute.useReplica() && !replicas.isEmpty()) {
+            Connection connection = replicaConnection();
+            if (connection != null) {
+                replicaConnections.increment();
+                return connection;
+            }
+            fallbacks.increment();
+        }
+        return super.getConnection();
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    public long replicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    public long fallbacks() {
+        return fallbacks.sum();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection replicaConnection() {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                return replica.dataSource().getConnection();
+            } catch (SQLException e) {
+                // a pool timeout without a connection failure behind it is backpressure, the replica is up
+                if (isConnectionFailure(e)) {
+                    replica.markDown();
+                    log.warn("replica {} is down, reading from the next one: {}", replica.name(), e.getMessage());
+                } else {
+                    log.debug("replica {} gave no connection, reading from the next one: {}",
+                            replica.name(), e.getMessage());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith(CONNECTION_EXCEPTION);
+    }
+}
@@ -0,0 +1,92 @@
+package com.armand.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// reading pg_stat_wal_receiver takes superuser or pg_read_all_stats
+public class ReplicaMonitor implements AutoCloseable {
+
+    static final String LAG_QUERY =
+            """
+            SELECT pg_is_in_recovery() AS in_recovery,
+                   COALESCE(receiver.status = 'streaming', false) AS streaming,
+                   CASE
+                       WHEN receiver.status = 'streaming'
+                           AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       WHEN receiver.status = 'streaming'
+                           THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - GREATEST(
+                           receiver.last_msg_receipt_time, pg_last_xact_replay_timestamp())), 0)
+                   END AS lag_seconds
+            FROM (SELECT 1) AS one
+            LEFT JOIN pg_stat_wal_receiver AS receiver ON true
+            """;
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration interval;
+    private ScheduledExecutorService executor;
+
+    public ReplicaMonitor(List<Replica> replicas, Duration maxLag, Duration interval) {
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.interval = interval;
+    }
+
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::checkAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void checkAll() {
+        replicas.forEach(this::check);
+    }
+
+    void check(Replica replica) {
+        boolean wasAvailable = replica.isAvailable();
+        try (Connection connection = replica.dataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+            lag.next();
+            double lagSeconds = lag.getDouble("lag_seconds");
+            String problem = !lag.getBoolean("in_recovery") ? "is not in recovery"
+                    : !lag.getBoolean("streaming") ? "is not streaming from the primary"
+                    : lagSeconds * 1000 > maxLag.toMillis() ? "lags behind"
+                    : null;
+            boolean available = problem == null;
+            replica.update(available, lagSeconds);
+            if (wasAvailable != available) {
+                log.warn("replica {} {}, lag {}s", replica.name(), available ? "is back" : problem, lagSeconds);
+            }
+        } catch (SQLException e) {
+            replica.update(false, replica.lagSeconds());
+            if (wasAvailable) {
+                log.warn("replica {} is down: {}", replica.name(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.armand.routing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+// ahead of the transaction interceptor, a read-only transaction takes its connection with the route set
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReplicaReadAspect {
+
+    @Around("@annotation(com.armand.routing.ReplicaRead)")
+    public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.armand.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingProperties.class)
+public class RoutingConfig {
+
+    // static and bound by hand, post processors are created before configuration properties.
+    // declared by type, the order is read from the factory method before the bean exists
+    @Bean
+    static ReadWriteRoutingDataSourcePostProcessor readWriteRoutingDataSourcePostProcessor(Environment environment) {
+        return new ReadWriteRoutingDataSourcePostProcessor(environment);
+    }
+
+    @Bean
+    static ReplicaReadAspect replicaReadAspect() {
+        return new ReplicaReadAspect();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    ReplicaMonitor replicaMonitor(DataSource dataSource, RoutingProperties properties) throws SQLException {
+        return new ReplicaMonitor(
+                dataSource.unwrap(ReadWriteRoutingDataSource.class).replicas(),
+                properties.maxLag(),
+                properties.checkInterval());
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    ReadYourWritesFilter readYourWritesFilter(RoutingProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow(), Clock.systemUTC());
+    }
+
+    @Bean
+    MeterBinder readWriteRoutingMetrics(DataSource dataSource) throws SQLException {
+        ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        return registry -> bindRoutingMetrics(routing, registry);
+    }
+
+    // last among the DataSource wrappers, the connection limiter wraps the primary pool alone
+    static final class ReadWriteRoutingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        static final int ORDER = Ordered.LOWEST_PRECEDENCE;
+
+        private final Environment environment;
+
+        ReadWriteRoutingDataSourcePostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof ReadWriteRoutingDataSource) {
+                return bean;
+            }
+            Binder binder = Binder.get(environment);
+            RoutingProperties properties = binder.bindOrCreate("datasource.routing", RoutingProperties.class);
+            List<Replica> replicas = new ArrayList<>();
+            for (RoutingProperties.ReplicaProperties replica : properties.replicas()) {
+                String name = "replica-" + replicas.size();
+                replicas.add(new Replica(name, replicaPool(binder, name, replica, properties)));
+            }
+            return new ReadWriteRoutingDataSource(dataSource, replicas);
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+
+    private static DataSource replicaPool(
+            Binder binder, String name, RoutingProperties.ReplicaProperties replica, RoutingProperties properties) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.url())
+                .username(replica.username() != null
+                        ? replica.username()
+                        : binder.bind("spring.datasource.username", String.class).orElse(null))
+                .password(replica.password() != null
+                        ? replica.password()
+                        : binder.bind("spring.datasource.password", String.class).orElse(null))
+                .build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(replica.maximumPoolSize());
+        // a replica that is down should cost a read little before it falls back to the primary
+        pool.setConnectionTimeout(properties.connectionTimeout().toMillis());
+        // start even while the replica is down, the monitor takes it out of rotation
+        pool.setInitializationFailTimeout(-1);
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    private static void bindRoutingMetrics(ReadWriteRoutingDataSource dataSource, MeterRegistry registry) {
+        FunctionCounter.builder("jdbc.connections.routed", dataSource, ReadWriteRoutingDataSource::replicaConnections)
+                .description("Connections taken from a replica")
+                .register(registry);
+        FunctionCounter.builder("jdbc.connections.routed.fallbacks", dataSource, ReadWriteRoutingDataSource::fallbacks)
+                .description("Replica reads served by the primary because no replica was available")
+                .register(registry);
+        for (Replica replica : dataSource.replicas()) {
+            Gauge.builder("jdbc.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether reads are sent to the replica")
+                    .tag("replica", replica.name())
+                    .register(registry);
+            Gauge.builder("jdbc.replica.lag", replica, Replica::lagSeconds)
+                    .description("Replay lag of the replica behind the primary")
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.armand.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("datasource.routing")
+public record RoutingProperties(
+        boolean enabled,
+        @DefaultValue List<ReplicaProperties> replicas,
+        @DefaultValue("5s") Duration readYourWritesWindow,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("2s") Duration checkInterval,
+        @DefaultValue("1s") Duration connectionTimeout) {
+
+    // the primary's credentials unless set
+    public record ReplicaProperties(String url, String username, String password, @DefaultValue("10") int maximumPoolSize) {}
+}
@@ -0,0 +1,137 @@
+package com.armand.threads;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadConfig {
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    // tomcat does not shut down an executor it was given, the context does after tomcat stopped
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService httpRequestExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor("http-");
+    }
+
+    @Bean
+    TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(httpRequestExecutor());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService asyncTaskExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor("task-");
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(asyncTaskExecutor());
+    }
+
+    // static and bound by hand, post processors are created before configuration properties.
+    // declared by type, the order is read from the factory method before the bean exists
+    @Bean
+    static ConnectionLimitingDataSourcePostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new ConnectionLimitingDataSourcePostProcessor(environment);
+    }
+
+    @Bean
+    MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            // under the read/write routing wrapper when that is enabled too
+            if (isWrapperFor(dataSource, ConnectionLimitingDataSource.class)) {
+                bindConnectionLimitMetrics(unwrap(dataSource, ConnectionLimitingDataSource.class), registry);
+            }
+        };
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    PinnedThreadMonitor pinnedThreadMonitor(VirtualThreadProperties properties, MeterRegistry meterRegistry) {
+        return new PinnedThreadMonitor(properties.pinnedThreshold(), meterRegistry);
+    }
+
+    // first among the DataSource wrappers, replica reads are not counted against the permits
+    static final class ConnectionLimitingDataSourcePostProcessor implements BeanPostProcessor, Ordered {
+
+        static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+
+        private final Environment environment;
+
+        ConnectionLimitingDataSourcePostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                return bean;
+            }
+            VirtualThreadProperties properties = Binder.get(environment)
+                    .bindOrCreate("threads.virtual", VirtualThreadProperties.class);
+            return new ConnectionLimitingDataSource(
+                    dataSource, permits(dataSource, properties), properties.connectionWait());
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+
+    private static int permits(DataSource dataSource, VirtualThreadProperties properties) {
+        if (properties.maxConnections() > 0) {
+            return properties.maxConnections();
+        }
+        if (isWrapperFor(dataSource, HikariDataSource.class)) {
+            int poolSize = unwrap(dataSource, HikariDataSource.class).getMaximumPoolSize();
+            // -1 until the pool starts when maximum-pool-size is not set, hikari then uses its default
+            return poolSize > 0 ? poolSize : HIKARI_DEFAULT_POOL_SIZE;
+        }
+        throw new IllegalStateException("set threads.virtual.max-connections for a " + dataSource.getClass().getName());
+    }
+
+    private static boolean isWrapperFor(DataSource dataSource, Class<?> type) {
+        try {
+            return dataSource.isWrapperFor(type);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.unwrap(type);
+        } catch (SQLException e) {
+            throw new IllegalStateException("could not unwrap " + type.getName() + " from " + dataSource, e);
+        }
+    }
+
+    private static void bindConnectionLimitMetrics(ConnectionLimitingDataSource dataSource, MeterRegistry registry) {
+        Gauge.builder("jdbc.connections.limit.available", dataSource, ConnectionLimitingDataSource::availablePermits)
+                .description("Connections that can be taken without waiting")
+                .register(registry);
+        Gauge.builder("jdbc.connections.limit.waiting", dataSource, ConnectionLimitingDataSource::waitingThreads)
+                .description("Threads waiting for a connection")
+                .register(registry);
+    }
+}
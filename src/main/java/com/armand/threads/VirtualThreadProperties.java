@@ -0,0 +1,13 @@
+package com.armand.threads;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("threads.virtual")
+public record VirtualThreadProperties(
+        boolean enabled,
+        @DefaultValue("0") int maxConnections,
+        @DefaultValue("30s") Duration connectionWait,
+        @DefaultValue("20ms") Duration pinnedThreshold) {}
@@ -0,0 +1,8 @@
+-- trigram indexes for substring search on name and email, built without blocking writes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_trgm_idx
+    ON customer USING gin (name gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_email_trgm_idx
+    ON customer USING gin (email gin_trgm_ops);
@@ -0,0 +1,7 @@
+-- ordered indexes for filtering by age and sorting by age or name, ties broken by id
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_age_id_idx
+    ON customer (age, id);
+
+-- the "C" collation sorts like java and exists for every database encoding
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_id_idx
+    ON customer (name COLLATE "C", id);
@@ -0,0 +1,84 @@
+-- customers per age bucket (decades, 100 and over share one), maintained by
+-- statement triggers in the transaction that writes the customers. Every
+-- backend adds to its own stripe, so concurrent writers do not queue on one
+-- row per bucket; readers sum at most buckets * stripes rows.
+CREATE TABLE customer_age_stats (
+    bucket INT NOT NULL,
+    stripe INT NOT NULL,
+    customers BIGINT NOT NULL,
+    PRIMARY KEY (bucket, stripe)
+);
+
+CREATE FUNCTION customer_age_bucket(age INT) RETURNS INT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    AS $$ SELECT least(greatest(age, 0) / 10, 10) $$;
+
+CREATE FUNCTION count_customer_ages() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    -- one upsert per statement, buckets in a fixed order so writers lock rows in the same order
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO customer_age_stats AS stats (bucket, stripe, customers)
+        SELECT customer_age_bucket(age), pg_backend_pid() % 16, count(*)
+        FROM new_rows
+        GROUP BY 1
+        ORDER BY 1
+        ON CONFLICT (bucket, stripe) DO UPDATE SET customers = stats.customers + excluded.customers;
+    ELSIF TG_OP = 'DELETE' THEN
+        INSERT INTO customer_age_stats AS stats (bucket, stripe, customers)
+        SELECT customer_age_bucket(age), pg_backend_pid() % 16, -count(*)
+        FROM old_rows
+        GROUP BY 1
+        ORDER BY 1
+        ON CONFLICT (bucket, stripe) DO UPDATE SET customers = stats.customers + excluded.customers;
+    ELSE
+        INSERT INTO customer_age_stats AS stats (bucket, stripe, customers)
+        SELECT bucket, pg_backend_pid() % 16, sum(delta)
+        FROM (
+            SELECT customer_age_bucket(age) AS bucket, 1 AS delta FROM new_rows
+            UNION ALL
+            SELECT customer_age_bucket(age), -1 FROM old_rows
+        ) changes
+        GROUP BY bucket
+        HAVING sum(delta) <> 0
+        ORDER BY bucket
+        ON CONFLICT (bucket, stripe) DO UPDATE SET customers = stats.customers + excluded.customers;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE FUNCTION clear_customer_ages() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    DELETE FROM customer_age_stats;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER customer_age_stats_insert
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION count_customer_ages();
+
+CREATE TRIGGER customer_age_stats_update
+    AFTER UPDATE ON customer
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION count_customer_ages();
+
+CREATE TRIGGER customer_age_stats_delete
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION count_customer_ages();
+
+CREATE TRIGGER customer_age_stats_truncate
+    AFTER TRUNCATE ON customer
+    FOR EACH STATEMENT EXECUTE FUNCTION clear_customer_ages();
+
+-- creating the triggers locked out writers until this migration commits, so the backfill is exact
+INSERT INTO customer_age_stats (bucket, stripe, customers)
+SELECT customer_age_bucket(age), 0, count(*)
+FROM customer
+GROUP BY 1;
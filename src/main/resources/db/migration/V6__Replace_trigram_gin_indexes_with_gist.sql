@@ -0,0 +1,10 @@
+-- gist also serves ORDER BY name <-> query, which search ranks by
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_name_trgm_gist_idx
+    ON customer USING gist (name gist_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_email_trgm_gist_idx
+    ON customer USING gist (email gist_trgm_ops);
+
+DROP INDEX CONCURRENTLY IF EXISTS customer_name_trgm_idx;
+
+DROP INDEX CONCURRENTLY IF EXISTS customer_email_trgm_idx;
@@ -4,7 +4,9 @@ import com.github.javafaker.Faker;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.BeforeAll;
 import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -34,6 +36,7 @@ public abstract class AbstractTestContainers {
                                 postgreSQLContainer.getJdbcUrl(),
                                 postgreSQLContainer.getUsername(),
                                 postgreSQLContainer.getPassword())
+                        .configuration(FlywayConfig.SESSION_LOCK)
                         .load();
         flyway.migrate();
         //    System.out.println(applicationContext.getBeanDefinitionCount());
@@ -62,5 +65,16 @@ public abstract class AbstractTestContainers {
         return new JdbcTemplate(getDataSource());
     }
 
+    protected static DatabaseClient getDatabaseClient() {
+        return DatabaseClient.create(ConnectionFactoryBuilder
+                .withUrl("r2dbc:postgresql://%s:%s/%s".formatted(
+                        postgreSQLContainer.getHost(),
+                        postgreSQLContainer.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                        postgreSQLContainer.getDatabaseName()))
+                .username(postgreSQLContainer.getUsername())
+                .password(postgreSQLContainer.getPassword())
+                .build());
+    }
+
     protected static final Faker FAKER = new Faker();
 }
@@ -0,0 +1,246 @@
+package com.armand.customer;
+
+import com.armand.routing.DataSourceRoute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingCustomerDaoTest {
+
+    private CachingCustomerDao underTest;
+
+    private AutoCloseable autoCloseable;
+
+    @Mock
+    private CustomerDao customerDao;
+
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        underTest = new CachingCustomerDao(customerDao, 100, null, true, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    @Test
+    void selectCustomerByIdLoadsOnce() {
+        //Given
+        Customer customer = getCustomer();
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        //When
+        Optional<Customer> first = underTest.selectCustomerById(1);
+        Optional<Customer> second = underTest.selectCustomerById(1);
+
+        //Then
+        assertThat(first).hasValue(customer);
+        assertThat(second).hasValue(customer);
+        verify(customerDao, times(1)).selectCustomerById(1);
+        assertThat(underTest.stats().hitCount()).isEqualTo(1);
+        assertThat(underTest.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void selectCustomerByIdLoadsFromPrimary() {
+        //Given
+        List<Boolean> usedReplica = new ArrayList<>();
+        when(customerDao.selectCustomerById(1)).thenAnswer(invocation -> {
+            usedReplica.add(DataSourceRoute.useReplica());
+            return Optional.of(getCustomer());
+        });
+
+        //When
+        try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+            underTest.selectCustomerById(1);
+
+            //Then
+            assertThat(usedReplica).containsExactly(false);
+            assertThat(DataSourceRoute.useReplica()).isTrue();
+        }
+    }
+
+    @Test
+    void selectCustomerByIdReturnsCopies() {
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(getCustomer()));
+
+        underTest.selectCustomerById(1).orElseThrow().setName("changed");
+
+        assertThat(underTest.selectCustomerById(1)).hasValue(getCustomer());
+    }
+
+    @Test
+    void missingIdsAreCached() {
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.empty());
+
+        underTest.selectCustomerById(1);
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+
+        assertThat(actual).isEmpty();
+        verify(customerDao, times(1)).selectCustomerById(1);
+    }
+
+    @Test
+    void missingIdsAreNotCachedWhenDisabled() {
+        underTest = new CachingCustomerDao(customerDao, 100, null, false, Duration.ofMinutes(1));
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.empty());
+
+        underTest.selectCustomerById(1);
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+
+        assertThat(actual).isEmpty();
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void updateCustomerInvalidates() {
+        Customer customer = getCustomer();
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(customer));
+        underTest.selectCustomerById(1);
+
+        underTest.updateCustomer(customer);
+        underTest.selectCustomerById(1);
+
+        verify(customerDao).updateCustomer(customer);
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void adjustCustomersAgeInvalidates() {
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(getCustomer()));
+        underTest.selectCustomerById(1);
+
+        underTest.adjustCustomersAge(List.of(1, 2), 1);
+        underTest.selectCustomerById(1);
+
+        verify(customerDao).adjustCustomersAge(List.of(1, 2), 1);
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void deleteCustomerByIdInvalidates() {
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(getCustomer()));
+        underTest.selectCustomerById(1);
+
+        underTest.deleteCustomerById(1);
+        underTest.selectCustomerById(1);
+
+        verify(customerDao).deleteCustomerById(1);
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void insertIfEmailAbsentInvalidatesMissingEntry() {
+        Customer customer = getCustomer();
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.empty());
+        underTest.selectCustomerById(1);
+        when(customerDao.insertIfEmailAbsent(customer)).thenReturn(Optional.of(1));
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        underTest.insertIfEmailAbsent(customer);
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+
+        assertThat(actual).hasValue(customer);
+    }
+
+    @Test
+    void insertCustomerWithoutIdInvalidatesMissingEntries() {
+        Customer customer = new Customer("Alex", "alex@gmail.com", 21);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.empty());
+        underTest.selectCustomerById(1);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(getCustomer()));
+
+        underTest.insertCustomer(customer);
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+
+        assertThat(actual).isPresent();
+        verify(customerDao, times(2)).selectCustomerById(1);
+    }
+
+    @Test
+    void insertCustomersWithoutIdsInvalidatesMissingEntriesOnly() {
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.empty());
+        when(customerDao.selectCustomerById(2)).thenReturn(Optional.of(getCustomer()));
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(2);
+
+        underTest.insertCustomers(List.of(new Customer("Alex", "alex@gmail.com", 21)));
+        underTest.selectCustomerById(1);
+        underTest.selectCustomerById(2);
+
+        verify(customerDao, times(2)).selectCustomerById(1);
+        verify(customerDao, times(1)).selectCustomerById(2);
+    }
+
+    @Test
+    void evictsBeyondMaximumSize() {
+        underTest = new CachingCustomerDao(customerDao, 10, null, true, Duration.ofMinutes(1));
+        when(customerDao.selectCustomerById(anyInt()))
+                .thenReturn(Optional.empty());
+
+        for (int id = 0; id < 100; id++) {
+            underTest.selectCustomerById(id);
+        }
+        underTest.cache().cleanUp();
+
+        assertThat(underTest.estimatedSize()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        //Given
+        int threads = 8;
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerDao.selectCustomerById(1)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(getCustomer());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //When
+        List<Future<Optional<Customer>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> underTest.selectCustomerById(1)));
+            }
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+            for (Future<Optional<Customer>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).hasValue(getCustomer());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //Then
+        verify(customerDao, times(1)).selectCustomerById(1);
+    }
+
+    private static Customer getCustomer() {
+        return new Customer(
+                1, "Ali", "ali@email.com", 2
+        );
+    }
+}
@@ -0,0 +1,56 @@
+package com.armand.customer;
+
+import com.armand.AbstractTestContainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerImportServiceTest extends AbstractTestContainers {
+
+    private CustomerImportService underTest;
+    private CustomerJDBCDataAccessService customerDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerImportService(getJdbcTemplate());
+        customerDao = new CustomerJDBCDataAccessService(getJdbcTemplate(), new CustomerRowMapper());
+    }
+
+    @Test
+    void importCsv() {
+        // Given
+        String takenEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        customerDao.insertCustomer(new Customer(FAKER.name().fullName(), takenEmail, 20));
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        String csv = """
+                name,email,age
+                "Doe, Jane",%s,30
+                John,%s,40
+                Bad Age,%s,forty
+                ,%s,50
+                Jane Again,%s,31
+                """.formatted(
+                email,
+                takenEmail,
+                UUID.randomUUID() + "@email.com",
+                UUID.randomUUID() + "@email.com",
+                email);
+
+        // When
+        CustomerImportResult actual = underTest.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertThat(actual).isEqualTo(new CustomerImportResult(1, 4));
+        List<Customer> customers = customerDao.selectAllCustomers();
+        assertThat(customers)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+                .contains(new Customer("Doe, Jane", email, 30));
+    }
+}
@@ -3,12 +3,27 @@ package com.armand.customer;
 import com.armand.AbstractTestContainers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
 
@@ -34,6 +49,148 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
         assertThat(customers).isNotEmpty();
     }
 
+    @Test
+    void selectCustomersAfter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            underTest.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                    20));
+        }
+        Integer lastId = underTest.selectCustomersAfter(0, 1).get(0).getId();
+
+        // When
+        List<Customer> actual = underTest.selectCustomersAfter(lastId, 2);
+
+        // Then
+        assertThat(actual).hasSize(2);
+        assertThat(actual).extracting(Customer::getId)
+                .isSorted()
+                .allMatch(id -> id > lastId);
+    }
+
+    @Test
+    void streamAllCustomers() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+
+        // When
+        boolean actual;
+        try (Stream<Customer> customers = underTest.streamAllCustomers()) {
+            actual = customers.anyMatch(c -> c.getEmail().equals(email));
+        }
+
+        // Then
+        assertThat(actual).isTrue();
+    }
+
+    @Test
+    void searchCustomers() {
+        // Given
+        String marker = UUID.randomUUID().toString();
+        underTest.insertCustomer(new Customer("Alexandro " + marker, marker + "@alexandro.com", 30));
+        underTest.insertCustomer(new Customer("Alex " + marker, marker + "@alex.com", 21));
+
+        // When
+        List<Customer> actual = underTest.searchCustomers(marker.toUpperCase(), 10);
+
+        // Then
+        assertThat(actual).extracting(Customer::getEmail)
+                .containsExactly(marker + "@alex.com", marker + "@alexandro.com");
+        assertThat(underTest.searchCustomers(marker.substring(0, 8) + "%", 10)).isEmpty();
+    }
+
+    @Test
+    void selectCustomers() {
+        // Given an age no other test uses
+        int age = 1_000 + new Random().nextInt(1_000_000);
+        for (String name : List.of("Jamila", "alex", "Alex", "Zoë")) {
+            underTest.insertCustomer(new Customer(name, UUID.randomUUID() + "@gmail.com", age));
+        }
+        underTest.insertCustomer(new Customer("Old", UUID.randomUUID() + "@gmail.com", age + 1));
+
+        // When
+        List<Customer> byName = underTest.selectCustomers(new CustomerQuery(age, age, CustomerQuery.Sort.NAME, 10));
+        List<Customer> byAge = underTest.selectCustomers(new CustomerQuery(age, null, CustomerQuery.Sort.AGE, 3));
+
+        // Then
+        assertThat(byName).extracting(Customer::getName).containsExactly("Alex", "Jamila", "Zoë", "alex");
+        assertThat(byName).isSortedAccordingTo(CustomerQuery.Sort.NAME.comparator());
+        assertThat(byAge).hasSize(3).allMatch(c -> c.getAge() == age).isSortedAccordingTo(CustomerQuery.Sort.ID.comparator());
+    }
+
+    @Test
+    void selectCustomersUsesAnIndexForEveryFilterAndOrder() {
+        // Given
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        jdbcTemplate.execute("ANALYZE customer");
+
+        for (Integer minAge : Arrays.asList(null, 18)) {
+            for (Integer maxAge : Arrays.asList(null, 30)) {
+                for (CustomerQuery.Sort sort : CustomerQuery.Sort.values()) {
+                    CustomerQuery query = new CustomerQuery(minAge, maxAge, sort, 20);
+
+                    // When
+                    String plan = explain(jdbcTemplate, query);
+
+                    // Then
+                    assertThat(plan).as("plan of %s", query)
+                            .contains("Index Scan using customer_")
+                            .doesNotContain("Seq Scan");
+                    if (sort == CustomerQuery.Sort.AGE || minAge == null && maxAge == null) {
+                        // the index already returns rows in order
+                        assertThat(plan).as("plan of %s", query).doesNotContain("Sort");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void selectCustomerStatsFollowsWrites() {
+        // Given
+        long[] before = perBucket(underTest.selectCustomerStats());
+        Integer id = underTest.insertIfEmailAbsent(
+                new Customer(FAKER.name().fullName(), UUID.randomUUID() + "@gmail.com", 25)).orElseThrow();
+        underTest.insertCustomers(List.of(
+                new Customer(FAKER.name().fullName(), UUID.randomUUID() + "@gmail.com", 25),
+                new Customer(FAKER.name().fullName(), UUID.randomUUID() + "@gmail.com", 107)));
+
+        // When
+        underTest.updateCustomer(new Customer(id, null, null, 64));
+        underTest.updateCustomer(new Customer(id, "Same Decade", null, 66));
+
+        // Then
+        long[] after = perBucket(underTest.selectCustomerStats());
+        assertThat(after[2] - before[2]).isEqualTo(1);
+        assertThat(after[6] - before[6]).isEqualTo(1);
+        assertThat(after[10] - before[10]).isEqualTo(1);
+
+        // When
+        underTest.deleteCustomerById(id);
+
+        // Then
+        assertThat(perBucket(underTest.selectCustomerStats())[6]).isEqualTo(before[6]);
+    }
+
+    @Test
+    void selectCustomerStatsMatchesTable() {
+        // Given
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        long[] expected = new long[CustomerStats.BUCKETS];
+        jdbcTemplate.query(
+                "SELECT customer_age_bucket(age), count(*) FROM customer GROUP BY 1",
+                (RowCallbackHandler) row -> expected[row.getInt(1)] = row.getLong(2));
+
+        // When
+        CustomerStats actual = underTest.selectCustomerStats();
+
+        // Then
+        assertThat(actual).isEqualTo(CustomerStats.of(expected));
+    }
+
     @Test
     void selectCustomerById() {
         // Given
@@ -102,6 +259,83 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
         );
     }
 
+    @Test
+    void insertIfEmailAbsent() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(FAKER.name().fullName(), email, 20);
+
+        // When
+        Optional<Integer> id = underTest.insertIfEmailAbsent(customer);
+        Optional<Integer> duplicateId = underTest.insertIfEmailAbsent(
+                new Customer(FAKER.name().fullName(), email, 30));
+
+        // Then
+        assertThat(id).isPresent();
+        assertThat(duplicateId).isEmpty();
+        assertThat(underTest.selectCustomerById(id.get()))
+                .isPresent()
+                .hasValueSatisfying(c -> {
+                    assertThat(c.getEmail()).isEqualTo(email);
+                    assertThat(c.getAge()).isEqualTo(20);
+                });
+    }
+
+    @Test
+    void insertCustomers() {
+        // Given
+        String takenEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), takenEmail, 20));
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(FAKER.name().fullName(), email, 30);
+
+        // When
+        Set<String> inserted = underTest.insertCustomers(List.of(
+                customer, new Customer(FAKER.name().fullName(), takenEmail, 40)));
+
+        // Then
+        assertThat(inserted).containsExactly(email);
+        List<Customer> customers = underTest.selectAllCustomers();
+        assertThat(customers)
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("id")
+                .contains(customer);
+        assertThat(customers)
+                .filteredOn(c -> c.getEmail().equals(takenEmail))
+                .singleElement()
+                .extracting(Customer::getAge)
+                .isEqualTo(20);
+    }
+
+    @Test
+    void insertCustomerTakesOneIdPerRow() {
+        // Given
+        String firstEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        String secondEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+
+        // When
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), firstEmail, 20));
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), secondEmail, 30));
+
+        // Then
+        Map<String, Integer> idsByEmail = underTest.selectAllCustomers().stream()
+                .collect(Collectors.toMap(Customer::getEmail, Customer::getId));
+        assertThat(idsByEmail.get(secondEmail)).isEqualTo(idsByEmail.get(firstEmail) + 1);
+    }
+
+    @Test
+    void selectExistingEmails() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+        String unknownEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+
+        // When
+        Set<String> actual = underTest.selectExistingEmails(List.of(email, unknownEmail));
+
+        // Then
+        assertThat(actual).containsExactly(email);
+    }
+
     @Test
     void existsCustomerWithEmail() {
         // Given
@@ -172,11 +406,36 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
                         .orElseThrow();
 
         //When
-        underTest.deleteCustomerById(id);
+        boolean deleted = underTest.deleteCustomerById(id);
 
         //Then
         Optional<Customer> actual = underTest.selectCustomerById(id);
         assertThat(actual).isNotPresent();
+        assertThat(deleted).isTrue();
+    }
+
+    @Test
+    void deleteCustomerByIdReturnsFalseWhenIdNotPresent() {
+        boolean actual = underTest.deleteCustomerById(-1);
+        assertThat(actual).isFalse();
+    }
+
+    @Test
+    void adjustCustomersAge() {
+        // Given
+        Integer first = underTest.insertIfEmailAbsent(new Customer(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 20)).orElseThrow();
+        Integer second = underTest.insertIfEmailAbsent(new Customer(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 30)).orElseThrow();
+
+        // When
+        int updated = underTest.adjustCustomersAge(List.of(first, second, first, -1), 5);
+
+        // Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(underTest.selectCustomerById(first).orElseThrow().getAge()).isEqualTo(25);
+        assertThat(underTest.selectCustomerById(second).orElseThrow().getAge()).isEqualTo(35);
+        assertThat(underTest.adjustCustomersAge(List.of(), 5)).isZero();
     }
 
     @Test
@@ -314,12 +573,62 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
         update.setEmail(newEmail);
         update.setAge(newAge);
 
-        underTest.updateCustomer(update);
+        Optional<Customer> updated = underTest.updateCustomer(update);
 
         //Then
         Optional<Customer> actual = underTest.selectCustomerById(id);
 
         assertThat(actual).isPresent().hasValue(update);
+        assertThat(updated).isPresent().hasValue(update);
+    }
+
+    @Test
+    void updateCustomerWithSameValuesReturnsEmpty() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(FAKER.name().fullName(), email, 20);
+        underTest.insertCustomer(customer);
+
+        Integer id =
+                underTest.selectAllCustomers().stream()
+                        .filter(c -> c.getEmail().equals(email))
+                        .map(Customer::getId)
+                        .findFirst()
+                        .orElseThrow();
+
+        //When
+        Customer update = new Customer();
+        update.setId(id);
+        update.setName(customer.getName());
+        update.setAge(customer.getAge());
+
+        Optional<Customer> actual = underTest.updateCustomer(update);
+
+        //Then
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void updateCustomerWithTakenEmail() {
+        String takenEmail = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), takenEmail, 20));
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 20));
+
+        Integer id =
+                underTest.selectAllCustomers().stream()
+                        .filter(c -> c.getEmail().equals(email))
+                        .map(Customer::getId)
+                        .findFirst()
+                        .orElseThrow();
+
+        //When
+        Customer update = new Customer();
+        update.setId(id);
+        update.setEmail(takenEmail);
+
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(update))
+                .isInstanceOf(DuplicateKeyException.class);
     }
 
     @Test
@@ -354,4 +663,32 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestContainers {
                             assertThat(c.getAge()).isEqualTo(customer.getAge());
                         });
     }
+
+    private static long[] perBucket(CustomerStats stats) {
+        return stats.ageBuckets().stream().mapToLong(CustomerStats.AgeBucket::customers).toArray();
+    }
+
+    // sequential scans priced out, or the handful of test rows makes them the cheapest plan
+    private static String explain(JdbcTemplate jdbcTemplate, CustomerQuery query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+            }
+            try (PreparedStatement statement =
+                         connection.prepareStatement("EXPLAIN " + CustomerQuerySql.statement(query))) {
+                new ArgumentPreparedStatementSetter(CustomerQuerySql.arguments(query)).setValues(statement);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
 }
@@ -3,10 +3,23 @@ package com.armand.customer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CustomerJPADataAccessServiceTest {
 
@@ -17,6 +30,9 @@ class CustomerJPADataAccessServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Captor
+    private ArgumentCaptor<List<Customer>> customersCaptor;
+
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
@@ -31,7 +47,61 @@ class CustomerJPADataAccessServiceTest {
     @Test
     void selectAllCustomers() {
         underTest.selectAllCustomers();
-        verify(customerRepository).findAll();
+        verify(customerRepository).findAllViews();
+    }
+
+    @Test
+    void selectCustomersAfter() {
+        //Given
+        int lastId = 1;
+
+        //When
+        underTest.selectCustomersAfter(lastId, 10);
+
+        //Then
+        verify(customerRepository).findViewsAfter(lastId, 10);
+    }
+
+    @Test
+    void streamAllCustomers() {
+        underTest.streamAllCustomers();
+        verify(customerRepository).streamAllBy();
+    }
+
+    @Test
+    void searchCustomers() {
+        //When
+        underTest.searchCustomers("al_x", 10);
+
+        //Then
+        verify(customerRepository).searchCustomers("%al\\_x%", "al_x", 10);
+    }
+
+    @Test
+    void selectCustomers() {
+        //Given
+        CustomerQuery query = new CustomerQuery(18, 30, CustomerQuery.Sort.NAME, 10);
+
+        //When
+        underTest.selectCustomers(query);
+
+        //Then
+        verify(customerRepository).findCustomers(query);
+    }
+
+    @Test
+    void selectCustomerStats() {
+        //Given
+        when(customerRepository.countCustomersPerAgeBucket())
+                .thenReturn(List.of(new Object[] {2, 3L}, new Object[] {10, 1L}));
+
+        //When
+        CustomerStats actual = underTest.selectCustomerStats();
+
+        //Then
+        assertThat(actual.customers()).isEqualTo(4);
+        assertThat(actual.ageBuckets().get(2).customers()).isEqualTo(3);
+        assertThat(actual.ageBuckets().get(10).customers()).isEqualTo(1);
     }
 
     @Test
@@ -43,7 +113,7 @@ class CustomerJPADataAccessServiceTest {
         underTest.selectCustomerById(id);
 
         //Then
-        verify(customerRepository).findById(id);
+        verify(customerRepository).findViewById(id);
     }
 
     @Test
@@ -59,6 +129,54 @@ class CustomerJPADataAccessServiceTest {
     }
 
 
+    @Test
+    void insertIfEmailAbsent() {
+        Customer customer = getCustomer();
+        underTest.insertIfEmailAbsent(customer);
+        verify(customerRepository).insertIfEmailAbsent(
+                customer.getName(), customer.getEmail(), customer.getAge());
+    }
+
+    @Test
+    void insertCustomers() {
+        //Given
+        Customer customer = new Customer("Ali", "ali@email.com", 2);
+
+        //When
+        Set<String> actual = underTest.insertCustomers(List.of(customer));
+
+        //Then
+        assertThat(actual).containsExactly("ali@email.com");
+        verify(customerRepository).persistInChunks(customersCaptor.capture());
+        assertThat(customersCaptor.getValue()).singleElement().isEqualTo(customer).isNotSameAs(customer);
+        verify(customerRepository, never()).findExistingEmails(any());
+        verify(customerRepository, never()).insertAllIfEmailAbsent(any());
+    }
+
+    @Test
+    void insertCustomersSkipsEmailTakenDuringInsert() {
+        //Given
+        Customer customer = new Customer("Ali", "ali@email.com", 2);
+        doThrow(new DataIntegrityViolationException("customer_email_unique"))
+                .when(customerRepository).persistInChunks(any());
+        when(customerRepository.insertAllIfEmailAbsent(any())).thenReturn(Set.of());
+
+        //When
+        Set<String> actual = underTest.insertCustomers(List.of(customer));
+
+        //Then
+        assertThat(actual).isEmpty();
+        verify(customerRepository).insertAllIfEmailAbsent(List.of(customer));
+        assertThat(customer.getId()).isNull();
+    }
+
+    @Test
+    void selectExistingEmails() {
+        Set<String> emails = Set.of("test@email.com");
+        underTest.selectExistingEmails(emails);
+        verify(customerRepository).findExistingEmails(emails);
+    }
+
     @Test
     void existsCustomerWithEmail() {
         String email = "test@email.com";
@@ -77,14 +195,45 @@ class CustomerJPADataAccessServiceTest {
     void deleteCustomerById() {
         int id = 1;
         underTest.deleteCustomerById(id);
-        verify(customerRepository).deleteById(id);
+        verify(customerRepository).deleteCustomerById(id);
+        verify(customerRepository, never()).deleteById(any());
     }
 
     @Test
     void updateCustomer() {
-        Customer customer = getCustomer();
-        underTest.updateCustomer(customer);
-        verify(customerRepository).save(customer);
+        //Given
+        Customer update = new Customer(1, "Bob", null, null);
+
+        //When
+        underTest.updateCustomer(update);
+
+        //Then
+        verify(customerRepository).updateChangedColumns(update);
+        verify(customerRepository, never()).findById(any());
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void adjustCustomersAge() {
+        //Given
+        List<Integer> ids = List.of(1, 2, 3);
+        when(customerRepository.adjustAgeOfCustomers(ids, 1)).thenReturn(2);
+
+        //When
+        int actual = underTest.adjustCustomersAge(ids, 1);
+
+        //Then
+        assertThat(actual).isEqualTo(2);
+    }
+
+    @Test
+    void adjustCustomersAgeWithoutIds() {
+        //When
+        int actual = underTest.adjustCustomersAge(List.of(), 1);
+
+        //Then
+        assertThat(actual).isZero();
+        verify(customerRepository, never()).adjustAgeOfCustomers(any(), anyInt());
     }
 
     private static Customer getCustomer() {
@@ -0,0 +1,63 @@
+package com.armand.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerJsonTest {
+
+    private final CustomerJson underTest = new CustomerJson(new ObjectMapper());
+
+    @Test
+    void requestsRoundTrip() throws IOException {
+        //Given
+        CustomerRegistrationRequest registration =
+                new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21);
+        CustomerUpdateRequest update = new CustomerUpdateRequest(null, null, 22);
+
+        //When
+        byte[] registrationJson = underTest.registrationWriter().writeValueAsBytes(registration);
+        byte[] updateJson = underTest.updateWriter().writeValueAsBytes(update);
+
+        //Then
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readValue(registrationJson, CustomerRegistrationRequest.class))
+                .isEqualTo(registration);
+        assertThat(objectMapper.readValue(updateJson, CustomerUpdateRequest.class)).isEqualTo(update);
+    }
+
+    @Test
+    void customerLineWriterWritesOneCustomerPerLine() throws IOException {
+        //Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        try (var writer = underTest.customerLineWriter().writeValues(out)) {
+            writer.write(new Customer(1, "Alex", "alex@gmail.com", 21));
+            writer.write(new Customer(2, "Jamila", "jamila@gmail.com", 19));
+        }
+
+        //Then
+        assertThat(out.toString().split("\n")).hasSize(2);
+    }
+
+    @Test
+    void registrationReaderReadsArrayElementByElement() throws IOException {
+        //When
+        List<CustomerRegistrationRequest> actual = underTest.registrationReader()
+                .<CustomerRegistrationRequest>readValues(
+                        "[{\"name\":\"Alex\",\"email\":\"alex@gmail.com\",\"age\":21},"
+                                + "{\"name\":\"Jamila\",\"email\":\"jamila@gmail.com\",\"age\":19}]")
+                .readAll();
+
+        //Then
+        assertThat(actual).containsExactly(
+                new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21),
+                new CustomerRegistrationRequest("Jamila", "jamila@gmail.com", 19));
+    }
+}
@@ -0,0 +1,356 @@
+package com.armand.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerListDataAccessServiceTest {
+
+    private static final int THREADS = 8;
+
+    private CustomerListDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerListDataAccessService();
+    }
+
+    @Test
+    void selectCustomersAfter() {
+        //Given
+        underTest.insertCustomer(new Customer("Foo", "foo@gmail.com", 30));
+
+        //When
+        List<Customer> actual = underTest.selectCustomersAfter(1, 10);
+
+        //Then
+        assertThat(actual).extracting(Customer::getId).containsExactly(2, 3);
+    }
+
+    @Test
+    void insertIfEmailAbsentRejectsTakenEmail() {
+        //When
+        Optional<Integer> taken = underTest.insertIfEmailAbsent(new Customer("Alex", "alex@gmail.com", 40));
+        Optional<Integer> free = underTest.insertIfEmailAbsent(new Customer("Foo", "foo@gmail.com", 40));
+
+        //Then
+        assertThat(taken).isEmpty();
+        assertThat(free).isPresent();
+        assertThat(underTest.selectCustomerById(free.get()))
+                .hasValueSatisfying(c -> assertThat(c.getEmail()).isEqualTo("foo@gmail.com"));
+    }
+
+    @Test
+    void insertCustomerWithTakenEmailThrows() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 40)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void returnedCustomersCanNotMutateStore() {
+        //Given
+        Customer customer = underTest.selectCustomerById(1).orElseThrow();
+
+        //When
+        customer.setName("Changed");
+
+        //Then
+        assertThat(underTest.selectCustomerById(1).orElseThrow().getName()).isEqualTo("Alex");
+    }
+
+    @Test
+    void updateCustomerReplacesEntryAndReleasesOldEmail() {
+        //When
+        Optional<Customer> updated = underTest.updateCustomer(new Customer(1, null, "alexandro@gmail.com", null));
+
+        //Then
+        assertThat(updated).hasValueSatisfying(c -> assertThat(c.getName()).isEqualTo("Alex"));
+        assertThat(underTest.selectAllCustomers()).hasSize(2);
+        assertThat(underTest.existsCustomerWithEmail("alex@gmail.com")).isFalse();
+        assertThat(underTest.existsCustomerWithEmail("alexandro@gmail.com")).isTrue();
+    }
+
+    @Test
+    void updateCustomerWithTakenEmailThrows() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(new Customer(1, null, "jamila@gmail.com", null)))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(underTest.selectCustomerById(1).orElseThrow().getEmail()).isEqualTo("alex@gmail.com");
+    }
+
+    @Test
+    void updateCustomerReturnsEmptyWhenNothingChanged() {
+        //When
+        Optional<Customer> updated = underTest.updateCustomer(new Customer(1, "Alex", "alex@gmail.com", 21));
+
+        //Then
+        assertThat(updated).isEmpty();
+        assertThat(underTest.existsCustomerWithEmail("alex@gmail.com")).isTrue();
+    }
+
+    @Test
+    void updateMissingCustomerDoesNotKeepEmail() {
+        //When
+        Optional<Customer> updated = underTest.updateCustomer(new Customer(99, null, "foo@gmail.com", null));
+
+        //Then
+        assertThat(updated).isEmpty();
+        assertThat(underTest.existsCustomerWithEmail("foo@gmail.com")).isFalse();
+    }
+
+    @Test
+    void adjustCustomersAgeFollowsIndexesAndStats() {
+        //When
+        int updated = underTest.adjustCustomersAge(List.of(1, 1, 2, 99), 40);
+
+        //Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(underTest.selectCustomerById(1).orElseThrow().getAge()).isEqualTo(61);
+        assertThat(underTest.selectCustomers(new CustomerQuery(50, null, CustomerQuery.Sort.AGE, 10)))
+                .extracting(Customer::getId).containsExactly(2, 1);
+        assertThat(underTest.selectCustomerStats().ageBuckets()).extracting(CustomerStats.AgeBucket::customers)
+                .containsExactly(0L, 0L, 0L, 0L, 0L, 1L, 1L, 0L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void deleteCustomerByIdReleasesEmail() {
+        //When
+        boolean deleted = underTest.deleteCustomerById(1);
+
+        //Then
+        assertThat(deleted).isTrue();
+        assertThat(underTest.deleteCustomerById(1)).isFalse();
+        assertThat(underTest.existsCustomerWithEmail("alex@gmail.com")).isFalse();
+        assertThat(underTest.insertIfEmailAbsent(new Customer("Alex", "alex@gmail.com", 21))).isPresent();
+    }
+
+    @Test
+    void searchCustomersFindsSubstringsIgnoringCase() {
+        //Given
+        underTest.insertCustomer(new Customer("Alexandro", "alexandro@gmail.com", 30));
+
+        //When
+        List<Customer> actual = underTest.searchCustomers("ALEX", 10);
+
+        //Then
+        assertThat(actual).extracting(Customer::getName).containsExactly("Alex", "Alexandro");
+        assertThat(underTest.searchCustomers("ila@gm", 10)).extracting(Customer::getName).containsExactly("Jamila");
+        assertThat(underTest.searchCustomers("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void searchCustomersFollowsUpdatesAndDeletes() {
+        //When
+        underTest.updateCustomer(new Customer(1, "Zed", "zed@gmail.com", null));
+        underTest.deleteCustomerById(2);
+
+        //Then
+        assertThat(underTest.searchCustomers("alex", 10)).isEmpty();
+        assertThat(underTest.searchCustomers("jamila", 10)).isEmpty();
+        assertThat(underTest.searchCustomers("zed@", 10)).extracting(Customer::getId).containsExactly(1);
+    }
+
+    @Test
+    void selectCustomersFiltersByAgeInQueryOrder() {
+        //Given
+        underTest.insertCustomer(new Customer("Bob", "bob@gmail.com", 30));
+        underTest.insertCustomer(new Customer("Zed", "zed@gmail.com", 21));
+
+        //When
+        List<Customer> byName = underTest.selectCustomers(new CustomerQuery(20, 30, CustomerQuery.Sort.NAME, 10));
+        List<Customer> byAge = underTest.selectCustomers(new CustomerQuery(null, 21, CustomerQuery.Sort.AGE, 10));
+        List<Customer> byId = underTest.selectCustomers(new CustomerQuery(20, null, CustomerQuery.Sort.ID, 2));
+
+        //Then
+        assertThat(byName).extracting(Customer::getName).containsExactly("Alex", "Bob", "Zed");
+        assertThat(byAge).extracting(Customer::getName).containsExactly("Jamila", "Alex", "Zed");
+        assertThat(byId).extracting(Customer::getName).containsExactly("Alex", "Bob");
+        assertThat(underTest.selectCustomers(new CustomerQuery(30, 20, CustomerQuery.Sort.AGE, 10))).isEmpty();
+    }
+
+    @Test
+    void selectCustomersFollowsUpdatesAndDeletes() {
+        //When
+        underTest.updateCustomer(new Customer(1, "Zed", null, 50));
+        underTest.deleteCustomerById(2);
+        underTest.insertCustomer(new Customer("Bob", "bob@gmail.com", 30));
+
+        //Then
+        assertThat(underTest.selectCustomers(new CustomerQuery(null, null, CustomerQuery.Sort.NAME, 10)))
+                .extracting(Customer::getName).containsExactly("Bob", "Zed");
+        assertThat(underTest.selectCustomers(new CustomerQuery(40, null, CustomerQuery.Sort.AGE, 10)))
+                .extracting(Customer::getId).containsExactly(1);
+    }
+
+    @Test
+    void selectCustomerStatsFollowsWrites() {
+        //When
+        underTest.insertCustomer(new Customer("Bob", "bob@gmail.com", 25));
+        underTest.updateCustomer(new Customer(1, null, null, 64));
+        underTest.deleteCustomerById(2);
+
+        //Then
+        CustomerStats stats = underTest.selectCustomerStats();
+        assertThat(stats.customers()).isEqualTo(2);
+        assertThat(stats.ageBuckets()).extracting(CustomerStats.AgeBucket::customers)
+                .containsExactly(0L, 0L, 1L, 0L, 0L, 0L, 1L, 0L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void concurrentInsertsOfSameEmailsCreateEachCustomerOnce() throws Exception {
+        //Given
+        int emails = 1_000;
+
+        //When
+        List<List<Integer>> createdPerThread = runConcurrently(thread -> {
+            List<Integer> created = new ArrayList<>();
+            for (int i = 0; i < emails; i++) {
+                underTest.insertIfEmailAbsent(new Customer("Foo", "foo-" + i + "@gmail.com", 30))
+                        .ifPresent(created::add);
+            }
+            return created;
+        });
+
+        //Then
+        List<Integer> created = createdPerThread.stream().flatMap(List::stream).toList();
+        assertThat(created).hasSize(emails).doesNotHaveDuplicates();
+        assertThat(underTest.selectAllCustomers()).hasSize(emails + 2);
+        assertIndexesConsistent(Set.of());
+    }
+
+    @Test
+    void concurrentUpdatesClaimingSameEmailLetOnlyOneWin() throws Exception {
+        //Given
+        List<Integer> ids = IntStream.range(0, THREADS)
+                .mapToObj(i -> underTest.insertIfEmailAbsent(new Customer("Foo", "foo-" + i + "@gmail.com", 30)))
+                .map(Optional::orElseThrow)
+                .toList();
+
+        for (int round = 0; round < 200; round++) {
+            String contested = "contested-" + round + "@gmail.com";
+
+            //When
+            List<Boolean> outcomes = runConcurrently(thread -> {
+                try {
+                    return underTest.updateCustomer(new Customer(ids.get(thread), null, contested, null)).isPresent();
+                } catch (DuplicateKeyException e) {
+                    return false;
+                }
+            });
+
+            //Then
+            assertThat(outcomes).containsOnlyOnce(true);
+            assertThat(underTest.selectAllCustomers())
+                    .filteredOn(c -> c.getEmail().equals(contested))
+                    .hasSize(1);
+        }
+        assertIndexesConsistent(Set.of());
+    }
+
+    @Test
+    void concurrentMixedWritesKeepIndexesConsistent() throws Exception {
+        //Given
+        int emails = 50;
+        Set<String> everyEmail = IntStream.range(0, emails)
+                .mapToObj(i -> "mixed-" + i + "@gmail.com")
+                .collect(Collectors.toSet());
+
+        //When
+        runConcurrently(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int op = 0; op < 20_000; op++) {
+                String email = "mixed-" + random.nextInt(emails) + "@gmail.com";
+                int id = random.nextInt(1, 200);
+                try {
+                    switch (random.nextInt(4)) {
+                        case 0 -> underTest.insertIfEmailAbsent(new Customer("Foo", email, 30));
+                        case 1 -> underTest.updateCustomer(new Customer(id, null, email, null));
+                        case 2 -> underTest.updateCustomer(new Customer(id, "Bar", null, random.nextInt(18, 99)));
+                        default -> underTest.deleteCustomerById(id);
+                    }
+                } catch (DuplicateKeyException ignored) {
+                    // a lost race for an email is an expected outcome
+                }
+            }
+            return null;
+        });
+
+        //Then
+        assertIndexesConsistent(everyEmail);
+    }
+
+    private void assertIndexesConsistent(Set<String> otherEmails) {
+        List<Customer> customers = underTest.selectAllCustomers();
+        Map<String, Integer> idsByEmail = customers.stream()
+                .collect(Collectors.toMap(Customer::getEmail, Customer::getId));
+        assertThat(idsByEmail).hasSameSizeAs(customers);
+
+        Set<String> candidates = new HashSet<>(otherEmails);
+        candidates.addAll(idsByEmail.keySet());
+        assertThat(underTest.selectExistingEmails(candidates)).isEqualTo(idsByEmail.keySet());
+        customers.forEach(c -> assertThat(underTest.selectCustomerById(c.getId())).hasValue(c));
+        customers.forEach(c -> assertThat(underTest.searchCustomers(c.getEmail(), 100)).contains(c));
+        assertThat(underTest.selectCustomerStats()).isEqualTo(statsOf(customers));
+        for (CustomerQuery.Sort sort : CustomerQuery.Sort.values()) {
+            assertThat(underTest.selectCustomers(new CustomerQuery(null, null, sort, Integer.MAX_VALUE)))
+                    .containsExactlyElementsOf(customers.stream().sorted(sort.comparator()).toList());
+        }
+    }
+
+    static CustomerStats statsOf(Collection<Customer> customers) {
+        long[] perBucket = new long[CustomerStats.BUCKETS];
+        customers.forEach(customer -> perBucket[CustomerStats.bucket(customer.getAge())]++);
+        return CustomerStats.of(perBucket);
+    }
+
+    private <T> List<T> runConcurrently(ThreadTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                Callable<T> callable = () -> {
+                    start.await();
+                    return task.run(index);
+                };
+                futures.add(executor.submit(callable));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask<T> {
+        T run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,303 @@
+package com.armand.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerOffHeapDataAccessServiceTest {
+
+    private CustomerOffHeapDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerOffHeapDataAccessService();
+    }
+
+    @Test
+    void insertAndSelectCustomer() {
+        //Given
+        Customer customer = new Customer("Zoë Ångström", "zoe@gmail.com", 30);
+
+        //When
+        Optional<Integer> id = underTest.insertIfEmailAbsent(customer);
+
+        //Then
+        assertThat(id).hasValue(1);
+        assertThat(underTest.selectCustomerById(1))
+                .hasValue(new Customer(1, "Zoë Ångström", "zoe@gmail.com", 30));
+        assertThat(underTest.existsCustomerWithEmail("zoe@gmail.com")).isTrue();
+        assertThat(underTest.existsCustomerWithEmail("zoé@gmail.com")).isFalse();
+    }
+
+    @Test
+    void insertIfEmailAbsentRejectsTakenEmail() {
+        //Given
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+
+        //When
+        Optional<Integer> id = underTest.insertIfEmailAbsent(new Customer("Alex", "alex@gmail.com", 40));
+
+        //Then
+        assertThat(id).isEmpty();
+        assertThatThrownBy(() -> underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 40)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void selectCustomersAfterSkipsDeletedCustomers() {
+        //Given
+        IntStream.range(0, 10).forEach(i -> underTest.insertCustomer(new Customer("Foo", "foo-" + i + "@gmail.com", 30)));
+        underTest.deleteCustomerById(4);
+        underTest.deleteCustomerById(5);
+
+        //When
+        List<Customer> page = underTest.selectCustomersAfter(3, 3);
+
+        //Then
+        assertThat(page).extracting(Customer::getId).containsExactly(6, 7, 8);
+    }
+
+    @Test
+    void streamAllCustomersPagesThroughEveryCustomer() {
+        //Given
+        IntStream.range(0, 1_234).forEach(i -> underTest.insertCustomer(new Customer("Foo", "foo-" + i + "@gmail.com", 30)));
+
+        //When
+        List<Integer> ids = underTest.streamAllCustomers().map(Customer::getId).toList();
+
+        //Then
+        assertThat(ids).hasSize(1_234).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void searchCustomersRanksSubstringMatches() {
+        //Given
+        underTest.insertCustomer(new Customer("Alexandro", "alexandro@gmail.com", 30));
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+        underTest.insertCustomer(new Customer("Jamila", "jamila@gmail.com", 19));
+
+        //When
+        List<Customer> actual = underTest.searchCustomers("Alex", 10);
+
+        //Then
+        assertThat(actual).extracting(Customer::getId).containsExactly(2, 1);
+    }
+
+    @Test
+    void selectCustomersFiltersByAgeInQueryOrder() {
+        //Given
+        underTest.insertCustomer(new Customer("Jamila", "jamila@gmail.com", 19));
+        underTest.insertCustomer(new Customer("Bob", "bob@gmail.com", 30));
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+        underTest.insertCustomer(new Customer("Zed", "zed@gmail.com", 21));
+
+        //When
+        List<Customer> byName = underTest.selectCustomers(new CustomerQuery(20, 30, CustomerQuery.Sort.NAME, 10));
+        List<Customer> byAge = underTest.selectCustomers(new CustomerQuery(null, 21, CustomerQuery.Sort.AGE, 2));
+        List<Customer> byId = underTest.selectCustomers(new CustomerQuery(20, null, CustomerQuery.Sort.ID, 2));
+
+        //Then
+        assertThat(byName).extracting(Customer::getName).containsExactly("Alex", "Bob", "Zed");
+        assertThat(byAge).extracting(Customer::getName).containsExactly("Jamila", "Alex");
+        assertThat(byId).extracting(Customer::getName).containsExactly("Bob", "Alex");
+    }
+
+    @Test
+    void selectCustomersKeepsTheFirstMatchesInQueryOrder() {
+        //Given
+        Random random = new Random(11);
+        for (int i = 0; i < 500; i++) {
+            underTest.insertCustomer(new Customer("Name " + random.nextInt(100), "c" + i + "@gmail.com", random.nextInt(60)));
+        }
+        underTest.deleteCustomerById(7);
+        List<Customer> all = underTest.selectAllCustomers();
+
+        //When
+        List<Customer> byName = underTest.selectCustomers(new CustomerQuery(10, 40, CustomerQuery.Sort.NAME, 25));
+        List<Customer> byAge = underTest.selectCustomers(new CustomerQuery(10, 40, CustomerQuery.Sort.AGE, 25));
+
+        //Then
+        assertThat(byName).containsExactlyElementsOf(all.stream()
+                .filter(customer -> customer.getAge() >= 10 && customer.getAge() <= 40)
+                .sorted(CustomerQuery.Sort.NAME.comparator())
+                .limit(25)
+                .toList());
+        assertThat(byAge).containsExactlyElementsOf(all.stream()
+                .filter(customer -> customer.getAge() >= 10 && customer.getAge() <= 40)
+                .sorted(CustomerQuery.Sort.AGE.comparator())
+                .limit(25)
+                .toList());
+    }
+
+    @Test
+    void searchCustomersIgnoresCaseOutsideAscii() {
+        //Given
+        underTest.insertCustomer(new Customer("ZOË Ångström", "zoe@gmail.com", 30));
+        underTest.insertCustomer(new Customer("Alex", "ALEX@GMAIL.COM", 21));
+
+        //When
+        List<Customer> byName = underTest.searchCustomers("zoë", 10);
+        List<Customer> byEmail = underTest.searchCustomers("alex@gmail", 10);
+        List<Customer> byAsciiInName = underTest.searchCustomers("ngstr", 10);
+
+        //Then
+        assertThat(byName).extracting(Customer::getId).containsExactly(1);
+        assertThat(byEmail).extracting(Customer::getId).containsExactly(2);
+        assertThat(byAsciiInName).extracting(Customer::getId).containsExactly(1);
+    }
+
+    @Test
+    void insertCustomersReturnsInsertedEmails() {
+        //Given
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+
+        //When
+        Set<String> inserted = underTest.insertCustomers(List.of(
+                new Customer("Alex again", "alex@gmail.com", 22),
+                new Customer("Jamila", "jamila@gmail.com", 19)));
+
+        //Then
+        assertThat(inserted).containsExactly("jamila@gmail.com");
+        assertThat(underTest.selectAllCustomers()).extracting(Customer::getName)
+                .containsExactlyInAnyOrder("Alex", "Jamila");
+    }
+
+    @Test
+    void selectCustomerStatsFollowsWrites() {
+        //Given
+        underTest.insertCustomers(List.of(
+                new Customer("Alex", "alex@gmail.com", 21),
+                new Customer("Jamila", "jamila@gmail.com", 19)));
+
+        //When
+        underTest.insertCustomer(new Customer("Bob", "bob@gmail.com", 125));
+        underTest.updateCustomer(new Customer(1, null, null, 64));
+        underTest.deleteCustomerById(2);
+
+        //Then
+        CustomerStats stats = underTest.selectCustomerStats();
+        assertThat(stats.customers()).isEqualTo(2);
+        assertThat(stats.ageBuckets()).extracting(CustomerStats.AgeBucket::customers)
+                .containsExactly(0L, 0L, 0L, 0L, 0L, 0L, 1L, 0L, 0L, 0L, 1L);
+    }
+
+    @Test
+    void updateCustomerMovesEmail() {
+        //Given
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+
+        //When
+        Optional<Customer> updated = underTest.updateCustomer(new Customer(1, null, "alexandro@gmail.com", 22));
+
+        //Then
+        assertThat(updated).hasValue(new Customer(1, "Alex", "alexandro@gmail.com", 22));
+        assertThat(underTest.existsCustomerWithEmail("alex@gmail.com")).isFalse();
+        assertThat(underTest.existsCustomerWithEmail("alexandro@gmail.com")).isTrue();
+    }
+
+    @Test
+    void updateCustomerWithTakenEmailThrows() {
+        //Given
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+        underTest.insertCustomer(new Customer("Jamila", "jamila@gmail.com", 19));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(new Customer(1, null, "jamila@gmail.com", null)))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void updateCustomerReturnsEmptyWhenNothingChanged() {
+        //Given
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+
+        //When
+        //Then
+        assertThat(underTest.updateCustomer(new Customer(1, "Alex", "alex@gmail.com", 21))).isEmpty();
+        assertThat(underTest.updateCustomer(new Customer(2, "Alex", null, null))).isEmpty();
+    }
+
+    @Test
+    void adjustCustomersAgeUpdatesAgeColumnAndStats() {
+        //Given
+        underTest.insertCustomer(new Customer("Alex", "alex@gmail.com", 21));
+        underTest.insertCustomer(new Customer("Jamila", "jamila@gmail.com", 19));
+
+        //When
+        int updated = underTest.adjustCustomersAge(List.of(1, 1, 2, 99), 40);
+
+        //Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(underTest.selectCustomerById(1)).hasValue(new Customer(1, "Alex", "alex@gmail.com", 61));
+        assertThat(underTest.selectCustomers(new CustomerQuery(60, null, CustomerQuery.Sort.ID, 10)))
+                .extracting(Customer::getId).containsExactly(1);
+        assertThat(underTest.selectCustomerStats().ageBuckets()).extracting(CustomerStats.AgeBucket::customers)
+                .containsExactly(0L, 0L, 0L, 0L, 0L, 1L, 1L, 0L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void behavesLikeMapUnderRandomWrites() {
+        //Given
+        Random random = new Random(42);
+        Map<Integer, Customer> expected = new TreeMap<>();
+        Map<String, Integer> expectedIdsByEmail = new HashMap<>();
+
+        //When
+        for (int op = 0; op < 200_000; op++) {
+            String name = "Foo" + op;
+            String email = "foo-" + random.nextInt(5_000) + "@gmail.com";
+            int id = random.nextInt(1, op / 2 + 2);
+            switch (random.nextInt(3)) {
+                case 0 -> underTest.insertIfEmailAbsent(new Customer(name, email, 30)).ifPresent(newId -> {
+                    expected.put(newId, new Customer(newId, name, email, 30));
+                    expectedIdsByEmail.put(email, newId);
+                });
+                case 1 -> {
+                    Customer customer = expected.get(id);
+                    Integer owner = expectedIdsByEmail.get(email);
+                    if (customer != null && (owner == null || owner == id)) {
+                        underTest.updateCustomer(new Customer(id, name, email, null));
+                        expected.put(id, new Customer(id, name, email, customer.getAge()));
+                        expectedIdsByEmail.remove(customer.getEmail());
+                        expectedIdsByEmail.put(email, id);
+                    }
+                }
+                default -> {
+                    Customer removed = expected.remove(id);
+                    if (removed != null) {
+                        expectedIdsByEmail.remove(removed.getEmail());
+                    }
+                    assertThat(underTest.deleteCustomerById(id)).isEqualTo(removed != null);
+                }
+            }
+        }
+
+        //Then
+        assertThat(underTest.selectAllCustomers()).containsExactlyElementsOf(expected.values());
+        assertThat(underTest.selectCustomerStats())
+                .isEqualTo(CustomerListDataAccessServiceTest.statsOf(expected.values()));
+        assertThat(underTest.selectCustomers(new CustomerQuery(20, 40, CustomerQuery.Sort.NAME, 100)))
+                .containsExactlyElementsOf(expected.values().stream()
+                        .filter(customer -> customer.getAge() >= 20 && customer.getAge() <= 40)
+                        .sorted(CustomerQuery.Sort.NAME.comparator())
+                        .limit(100)
+                        .toList());
+        expected.values().forEach(customer ->
+                assertThat(underTest.selectCustomerById(customer.getId())).hasValue(customer));
+        IntStream.range(0, 5_000).mapToObj(i -> "foo-" + i + "@gmail.com").forEach(email ->
+                assertThat(underTest.existsCustomerWithEmail(email)).isEqualTo(expectedIdsByEmail.containsKey(email)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.armand.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerQuerySqlTest {
+
+    @Test
+    void statementOnlyFiltersOnGivenBounds() {
+        CustomerQuery query = new CustomerQuery(18, null, CustomerQuery.Sort.NAME, 20);
+
+        assertThat(CustomerQuerySql.statement(query))
+                .contains("WHERE age >= ?")
+                .contains("ORDER BY name COLLATE \"C\", id")
+                .contains("LIMIT ?")
+                .doesNotContain("age <=");
+        assertThat(CustomerQuerySql.arguments(query)).containsExactly(18, 20);
+    }
+
+    @Test
+    void statementWithoutBoundsHasNoWhereClause() {
+        CustomerQuery query = new CustomerQuery(null, null, CustomerQuery.Sort.ID, 20);
+
+        assertThat(CustomerQuerySql.statement(query))
+                .doesNotContain("WHERE")
+                .contains("ORDER BY id");
+        assertThat(CustomerQuerySql.arguments(query)).containsExactly(20);
+    }
+
+    @Test
+    void numberedStatementNumbersPlaceholdersInArgumentOrder() {
+        CustomerQuery query = new CustomerQuery(18, 30, CustomerQuery.Sort.AGE, 20);
+
+        assertThat(CustomerQuerySql.numberedStatement(query))
+                .contains("WHERE age >= $1 AND age <= $2")
+                .contains("ORDER BY age, id")
+                .contains("LIMIT $3")
+                .doesNotContain("?");
+        assertThat(CustomerQuerySql.arguments(query)).containsExactly(18, 30, 20);
+    }
+}
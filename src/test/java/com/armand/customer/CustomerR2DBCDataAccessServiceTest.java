@@ -0,0 +1,172 @@
+package com.armand.customer;
+
+import com.armand.AbstractTestContainers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerR2DBCDataAccessServiceTest extends AbstractTestContainers {
+
+    private CustomerR2DBCDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerR2DBCDataAccessService(getDatabaseClient());
+    }
+
+    @Test
+    void insertIfEmailAbsentAndSelectCustomerById() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(FAKER.name().fullName(), email, 20);
+
+        // When
+        Integer id = underTest.insertIfEmailAbsent(customer).block();
+        Integer duplicate = underTest.insertIfEmailAbsent(customer).block();
+
+        // Then
+        assertThat(duplicate).isNull();
+        assertThat(underTest.selectCustomerById(id).block())
+                .isEqualTo(new Customer(id, customer.getName(), email, 20));
+        assertThat(underTest.existsCustomerById(id).block()).isTrue();
+    }
+
+    @Test
+    void selectAllCustomersAndSelectCustomersAfter() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            underTest.insertIfEmailAbsent(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(),
+                    20)).block();
+        }
+        List<Integer> all = underTest.selectAllCustomers().map(Customer::getId).collectList().block();
+
+        // When
+        List<Integer> actual = underTest.selectCustomersAfter(all.get(0), 2).map(Customer::getId).collectList().block();
+
+        // Then
+        assertThat(all).isSorted().doesNotHaveDuplicates();
+        assertThat(actual).containsExactly(all.get(1), all.get(2));
+    }
+
+    @Test
+    void searchCustomers() {
+        // Given
+        String marker = UUID.randomUUID().toString();
+        underTest.insertIfEmailAbsent(new Customer("Alexandro " + marker, marker + "@alexandro.com", 30)).block();
+        underTest.insertIfEmailAbsent(new Customer("Alex " + marker, marker + "@alex.com", 21)).block();
+
+        // When
+        List<String> actual = underTest.searchCustomers(marker, 1).map(Customer::getEmail).collectList().block();
+
+        // Then
+        assertThat(actual).containsExactly(marker + "@alex.com");
+    }
+
+    @Test
+    void selectCustomers() {
+        // Given an age no other test uses
+        int age = 1_000 + new Random().nextInt(1_000_000);
+        for (String name : List.of("Jamila", "Alex")) {
+            underTest.insertIfEmailAbsent(new Customer(name, UUID.randomUUID() + "@gmail.com", age)).block();
+        }
+
+        // When
+        List<String> actual = underTest.selectCustomers(new CustomerQuery(age, age, CustomerQuery.Sort.NAME, 10))
+                .map(Customer::getName)
+                .collectList()
+                .block();
+
+        // Then
+        assertThat(actual).containsExactly("Alex", "Jamila");
+    }
+
+    @Test
+    void selectCustomerStats() {
+        // Given
+        underTest.insertIfEmailAbsent(new Customer(
+                FAKER.name().fullName(), UUID.randomUUID() + "@gmail.com", 20)).block();
+
+        // When
+        CustomerStats actual = underTest.selectCustomerStats().block();
+
+        // Then
+        Long customers = getDatabaseClient().sql("SELECT count(*) FROM customer")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+        assertThat(actual.customers()).isEqualTo(customers);
+        assertThat(actual.ageBuckets()).hasSize(CustomerStats.BUCKETS);
+    }
+
+    @Test
+    void updateCustomerReturnsUpdatedRowOnlyWhenSomethingChanged() {
+        // Given
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Integer id = underTest.insertIfEmailAbsent(new Customer("Alex", email, 20)).block();
+
+        // When
+        Customer updated = underTest.updateCustomer(new Customer(id, "Alexandro", null, 21)).block();
+        Customer unchanged = underTest.updateCustomer(new Customer(id, "Alexandro", email, 21)).block();
+
+        // Then
+        assertThat(updated).isEqualTo(new Customer(id, "Alexandro", email, 21));
+        assertThat(unchanged).isNull();
+    }
+
+    @Test
+    void updateCustomerWithTakenEmailThrows() {
+        // Given
+        String taken = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        underTest.insertIfEmailAbsent(new Customer("Jamila", taken, 19)).block();
+        Integer id = underTest.insertIfEmailAbsent(new Customer(
+                "Alex", FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 20)).block();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.updateCustomer(new Customer(id, null, taken, null)).block())
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void deleteCustomerById() {
+        // Given
+        Integer id = underTest.insertIfEmailAbsent(new Customer(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 20)).block();
+
+        // When
+        Boolean deleted = underTest.deleteCustomerById(id).block();
+
+        // Then
+        assertThat(deleted).isTrue();
+        assertThat(underTest.deleteCustomerById(id).block()).isFalse();
+        assertThat(underTest.selectCustomerById(id).block()).isNull();
+        assertThat(underTest.existsCustomerById(id).block()).isFalse();
+    }
+
+    @Test
+    void adjustCustomersAge() {
+        // Given
+        Integer first = underTest.insertIfEmailAbsent(new Customer(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 20)).block();
+        Integer second = underTest.insertIfEmailAbsent(new Customer(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 30)).block();
+
+        // When unknown ids are ignored and repeated ones count once
+        Integer updated = underTest.adjustCustomersAge(List.of(first, second, second, -1), 5).block();
+
+        // Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(underTest.selectCustomerById(first).block().getAge()).isEqualTo(25);
+        assertThat(underTest.selectCustomerById(second).block().getAge()).isEqualTo(35);
+        assertThat(underTest.adjustCustomersAge(List.of(), 5).block()).isZero();
+    }
+}
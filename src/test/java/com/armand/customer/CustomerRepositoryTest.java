@@ -6,11 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -19,6 +26,9 @@ class CustomerRepositoryTest extends AbstractTestContainers {
     @Autowired
     private CustomerRepository underTest;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private record Result(String email, Customer customer) {
     }
 
@@ -61,6 +71,236 @@ class CustomerRepositoryTest extends AbstractTestContainers {
                         });
     }
 
+    @Test
+    void findViewById() {
+        // Given
+        Result result = getCustomer();
+        underTest.flush();
+        Integer id = result.customer().getId();
+
+        // When
+        Optional<CustomerView> actual = underTest.findViewById(id);
+
+        // Then
+        assertThat(actual).contains(new CustomerView(id, result.customer().getName(), result.email(), 20));
+        assertThat(underTest.findViewById(-1)).isEmpty();
+    }
+
+    @Test
+    void findAllViews() {
+        // Given
+        Result result = getCustomer();
+        underTest.flush();
+        entityManager.clear();
+
+        // When
+        List<CustomerView> actual = underTest.findAllViews();
+
+        // Then
+        assertThat(actual).extracting(CustomerView::toCustomer).contains(result.customer());
+        assertThat(actual).hasSize((int) underTest.count());
+    }
+
+    @Test
+    void findViewsAfter() {
+        // Given
+        Integer first = getCustomer().customer().getId();
+        Integer second = getCustomer().customer().getId();
+        Integer third = getCustomer().customer().getId();
+        underTest.flush();
+
+        // When
+        List<CustomerView> actual = underTest.findViewsAfter(first, 2);
+
+        // Then
+        assertThat(actual).extracting(CustomerView::id).containsExactly(second, third);
+    }
+
+    @Test
+    void insertIfEmailAbsent() {
+        // Given
+        Result result = getCustomer();
+        underTest.flush();
+
+        // When
+        Optional<Integer> actual = underTest.insertIfEmailAbsent(
+                FAKER.name().fullName(), result.email(), 30);
+
+        // Then
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void persistInChunks() {
+        // Given more customers than one jdbc batch
+        String marker = UUID.randomUUID().toString();
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            customers.add(new Customer("Bulk " + i, marker + "." + i + "@gmail.com", 20 + i % 50));
+        }
+
+        // When
+        underTest.persistInChunks(customers);
+
+        // Then
+        assertThat(customers).extracting(Customer::getId)
+                .doesNotContainNull()
+                .doesNotHaveDuplicates()
+                .isSorted();
+        assertThat(customers).noneMatch(entityManager.getEntityManager()::contains);
+        assertThat(underTest.findExistingEmails(customers.stream().map(Customer::getEmail).toList()))
+                .hasSize(120);
+    }
+
+    @Test
+    void saveTakesIdsFromTheColumnDefaultSequence() {
+        // Given
+        Integer saved = getCustomer().customer().getId();
+        underTest.flush();
+
+        // When
+        Optional<Integer> inserted = underTest.insertIfEmailAbsent(
+                FAKER.name().fullName(), FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID(), 30);
+
+        // Then
+        assertThat(inserted).hasValueSatisfying(id -> assertThat(id).isGreaterThan(saved));
+    }
+
+    @Test
+    void insertAllIfEmailAbsent() {
+        // Given
+        Result taken = getCustomer();
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+
+        // When
+        Set<String> actual = underTest.insertAllIfEmailAbsent(List.of(
+                new Customer("Taken", taken.customer().getEmail(), 40),
+                new Customer("New", email, 30)));
+
+        // Then
+        assertThat(actual).containsExactly(email);
+        assertThat(underTest.findExistingEmails(List.of(email))).containsExactly(email);
+    }
+
+    @Test
+    void updateChangedColumns() {
+        // Given
+        Result result = getCustomer();
+        underTest.flush();
+        Integer id = result.customer().getId();
+
+        // When
+        Optional<Customer> actual = underTest.updateChangedColumns(new Customer(id, "Bob", null, null));
+
+        // Then
+        Customer expected = new Customer(id, "Bob", result.email(), result.customer().getAge());
+        assertThat(actual).contains(expected);
+        assertThat(entityManager.getEntityManager().contains(actual.get())).isFalse();
+        assertThat(underTest.findViewById(id)).map(CustomerView::toCustomer).contains(expected);
+    }
+
+    @Test
+    void updateChangedColumnsReturnsEmptyWithoutChanges() {
+        // Given
+        Result result = getCustomer();
+        underTest.flush();
+        Integer id = result.customer().getId();
+
+        // When
+        Optional<Customer> unchanged = underTest.updateChangedColumns(new Customer(id, null, result.email(), 20));
+        Optional<Customer> nothing = underTest.updateChangedColumns(new Customer(id, null, null, null));
+        Optional<Customer> missing = underTest.updateChangedColumns(new Customer(-1, "Bob", null, null));
+
+        // Then
+        assertThat(unchanged).isEmpty();
+        assertThat(nothing).isEmpty();
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    void updateChangedColumnsWithTakenEmail() {
+        // Given
+        Result taken = getCustomer();
+        Result result = getCustomer();
+        underTest.flush();
+
+        // When
+        // Then
+        assertThatThrownBy(() -> underTest.updateChangedColumns(
+                new Customer(result.customer().getId(), null, taken.email(), null)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void adjustAgeOfCustomers() {
+        // Given
+        Integer first = getCustomer().customer().getId();
+        Integer second = getCustomer().customer().getId();
+        underTest.flush();
+
+        // When
+        int updated = underTest.adjustAgeOfCustomers(List.of(first, second, -1), 5);
+
+        // Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(underTest.findViewById(first)).hasValueSatisfying(c -> assertThat(c.age()).isEqualTo(25));
+        assertThat(underTest.findViewById(second)).hasValueSatisfying(c -> assertThat(c.age()).isEqualTo(25));
+    }
+
+    @Test
+    void countCustomersPerAgeBucket() {
+        // Given
+        getCustomer();
+        underTest.flush();
+
+        // When
+        long counted = underTest.countCustomersPerAgeBucket().stream()
+                .mapToLong(row -> ((Number) row[1]).longValue())
+                .sum();
+
+        // Then
+        assertThat(counted).isEqualTo(underTest.count());
+    }
+
+    @Test
+    void findCustomers() {
+        // Given an age no other test uses
+        int age = 1_000 + new Random().nextInt(1_000_000);
+        for (String name : List.of("Jamila", "alex", "Alex", "Zoë")) {
+            underTest.save(new Customer(name, UUID.randomUUID() + "@gmail.com", age));
+        }
+        underTest.save(new Customer("Old", UUID.randomUUID() + "@gmail.com", age + 1));
+        underTest.flush();
+
+        // When
+        List<Customer> byName = underTest.findCustomers(new CustomerQuery(age, age, CustomerQuery.Sort.NAME, 10))
+                .stream().map(CustomerView::toCustomer).toList();
+        List<Customer> byAge = underTest.findCustomers(new CustomerQuery(age, age + 1, CustomerQuery.Sort.AGE, 10))
+                .stream().map(CustomerView::toCustomer).toList();
+
+        // Then
+        assertThat(byName).extracting(Customer::getName).containsExactly("Alex", "Jamila", "Zoë", "alex");
+        assertThat(byAge).hasSize(5).isSortedAccordingTo(CustomerQuery.Sort.AGE.comparator());
+        assertThat(byAge.get(4).getName()).isEqualTo("Old");
+    }
+
+    @Test
+    void searchCustomers() {
+        // Given
+        String marker = UUID.randomUUID().toString();
+        underTest.save(new Customer("Alexandro " + marker, marker + "@alexandro.com", 30));
+        underTest.save(new Customer("Alex " + marker, marker + "@alex.com", 21));
+        underTest.flush();
+
+        // When
+        var actual = underTest.searchCustomers(
+                CustomerSearch.containsPattern(marker), marker, 10);
+
+        // Then
+        assertThat(actual).extracting(Customer::getEmail)
+                .containsExactly(marker + "@alex.com", marker + "@alexandro.com");
+    }
+
     @Test
     void existsCustomerByIdFailsWhenIdNotPresent() {
         // Given
@@ -15,10 +15,10 @@ class CustomerRowMapperTest {
     void mapRow() throws SQLException {
         CustomerRowMapper customerRowMapper = new CustomerRowMapper();
         ResultSet resultSet = mock(ResultSet.class);
-        when(resultSet.getInt("id")).thenReturn(1);
-        when(resultSet.getInt("age")).thenReturn(19);
-        when(resultSet.getString("name")).thenReturn("Jamila");
-        when(resultSet.getString("email")).thenReturn("jamila@email.com");
+        when(resultSet.getInt(1)).thenReturn(1);
+        when(resultSet.getString(2)).thenReturn("Jamila");
+        when(resultSet.getString(3)).thenReturn("jamila@email.com");
+        when(resultSet.getInt(4)).thenReturn(19);
 
         Customer actual = customerRowMapper.mapRow(resultSet, 1);
 
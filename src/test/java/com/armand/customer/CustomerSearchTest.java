@@ -0,0 +1,55 @@
+package com.armand.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CustomerSearchTest {
+
+    @Test
+    void containsPatternEscapesWildcards() {
+        assertThat(CustomerSearch.containsPattern("jo_n%")).isEqualTo("%jo\\_n\\%%");
+        assertThat(CustomerSearch.containsPattern("a\\b")).isEqualTo("%a\\\\b%");
+    }
+
+    @Test
+    void similarityMatchesPgTrgm() {
+        // values from SELECT similarity(...) on PostgreSQL 15 with pg_trgm 1.6
+        assertThat(CustomerSearch.similarity("word", "two words")).isCloseTo(0.363636, within(1e-6));
+        assertThat(CustomerSearch.similarity("Alex", "alex@gmail.com")).isCloseTo(0.333333, within(1e-6));
+        assertThat(CustomerSearch.similarity("alex", "ALEX")).isEqualTo(1);
+    }
+
+    @Test
+    void rankPutsMostSimilarFirstThenLowestId() {
+        //Given
+        Customer alexandro = new Customer(1, "Alexandro", "alexandro@gmail.com", 30);
+        Customer alex = new Customer(2, "Alex", "alex@gmail.com", 21);
+        Customer alexa = new Customer(3, "Alex", "alex@yahoo.com", 40);
+
+        //When
+        List<Customer> actual = CustomerSearch.rank(Stream.of(alexandro, alexa, alex), "alex", 2);
+
+        //Then
+        assertThat(actual).containsExactly(alex, alexa);
+    }
+
+    @Test
+    void rankFindsBestMatchAfterManyWeakOnes() {
+        //Given
+        Stream<Customer> weak = IntStream.rangeClosed(1, 5_000)
+                .mapToObj(id -> new Customer(id, "Alexandrina " + id, "alexandrina." + id + "@gmail.com", 30));
+        Customer alex = new Customer(5_001, "Alex", "alex@gmail.com", 21);
+
+        //When
+        List<Customer> actual = CustomerSearch.rank(Stream.concat(weak, Stream.of(alex)), "alex", 1);
+
+        //Then
+        assertThat(actual).containsExactly(alex);
+    }
+}
@@ -10,14 +10,25 @@ import org.junit.platform.commons.util.StringUtils;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -40,6 +51,127 @@ class CustomerServiceTest {
         verify(customerDao).selectAllCustomers();
     }
 
+    @Test
+    void getCustomersPage_HasNextPage() {
+        List<Customer> customers = List.of(getNewCustomer(1), getNewCustomer(2), getNewCustomer(3));
+        when(customerDao.selectCustomersAfter(0, 3)).thenReturn(customers);
+
+        CustomerPage actual = underTest.getCustomersPage(null, 2);
+
+        assertThat(actual.customers()).containsExactly(customers.get(0), customers.get(1));
+        assertThat(actual.nextCursor()).isNotNull();
+        assertThat(CustomerCursor.decode(actual.nextCursor())).isEqualTo(2);
+    }
+
+    @Test
+    void getCustomersPage_LastPage() {
+        List<Customer> customers = List.of(getNewCustomer(3));
+        when(customerDao.selectCustomersAfter(2, 3)).thenReturn(customers);
+
+        CustomerPage actual = underTest.getCustomersPage(CustomerCursor.encode(2), 2);
+
+        assertThat(actual.customers()).containsExactly(customers.get(0));
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void getCustomersPage_SizeTooLarge() {
+        assertThatThrownBy(() -> underTest.getCustomersPage(null, CustomerService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("page size must be between 1 and %s".formatted(CustomerService.MAX_PAGE_SIZE));
+        verify(customerDao, never()).selectCustomersAfter(any(), anyInt());
+    }
+
+    @Test
+    void queryCustomers() {
+        underTest.queryCustomers(18, 30, "Name", null);
+        verify(customerDao).selectCustomers(
+                new CustomerQuery(18, 30, CustomerQuery.Sort.NAME, CustomerService.DEFAULT_QUERY_LIMIT));
+    }
+
+    @Test
+    void queryCustomers_MinAgeAboveMaxAge() {
+        assertThatThrownBy(() -> underTest.queryCustomers(30, 18, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("minAge must not be greater than maxAge");
+        verify(customerDao, never()).selectCustomers(any());
+    }
+
+    @Test
+    void queryCustomers_UnknownSort() {
+        assertThatThrownBy(() -> underTest.queryCustomers(null, null, "email", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("sort must be one of id, name or age");
+    }
+
+    @Test
+    void queryCustomers_LimitTooLarge() {
+        assertThatThrownBy(() -> underTest.queryCustomers(null, null, null, CustomerService.MAX_QUERY_LIMIT + 1))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("limit must be between 1 and %s".formatted(CustomerService.MAX_QUERY_LIMIT));
+    }
+
+    @Test
+    void getCustomerStats() {
+        underTest.getCustomerStats();
+        verify(customerDao).selectCustomerStats();
+    }
+
+    @Test
+    void searchCustomers_TrimsQuery() {
+        underTest.searchCustomers("  alex ", null);
+        verify(customerDao).searchCustomers("alex", CustomerService.DEFAULT_SEARCH_LIMIT);
+    }
+
+    @Test
+    void searchCustomers_QueryTooShort() {
+        assertThatThrownBy(() -> underTest.searchCustomers(" al ", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("search query must have at least 3 characters");
+        verify(customerDao, never()).searchCustomers(any(), anyInt());
+    }
+
+    @Test
+    void searchCustomers_LimitTooLarge() {
+        assertThatThrownBy(() -> underTest.searchCustomers("alex", CustomerService.MAX_SEARCH_LIMIT + 1))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("search limit must be between 1 and %s".formatted(CustomerService.MAX_SEARCH_LIMIT));
+    }
+
+    @Test
+    void getCustomersPage_InvalidCursor() {
+        assertThatThrownBy(() -> underTest.getCustomersPage("not-a-cursor", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor [not-a-cursor]");
+    }
+
+    @Test
+    void exportCustomers_ClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        List<Customer> customers = List.of(getNewCustomer(1), getNewCustomer(2));
+        when(customerDao.streamAllCustomers())
+                .thenReturn(customers.stream().onClose(() -> closed.set(true)));
+        List<Customer> exported = new ArrayList<>();
+
+        underTest.exportCustomers(exported::add);
+
+        assertThat(exported).isEqualTo(customers);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void exportCustomers_ClosesStreamWhenConsumerFails() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(customerDao.streamAllCustomers())
+                .thenReturn(Stream.of(getNewCustomer(1)).onClose(() -> closed.set(true)));
+
+        assertThatThrownBy(() -> underTest.exportCustomers(c -> {
+            throw new IllegalStateException("client disconnected");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(closed).isTrue();
+    }
+
     @Test
     void getCustomerById_Success() {
         int id = 1;
@@ -64,26 +196,27 @@ class CustomerServiceTest {
     @Test
     void addCustomer_Success() {
         String email = "test@email.com";
-        when(customerDao.existsCustomerWithEmail(email)).thenReturn(false);
+        when(customerDao.insertIfEmailAbsent(any())).thenReturn(Optional.of(1));
         CustomerRegistrationRequest request = getNewCustomerRegistrationRequest(email, "", null);
 
-        underTest.addCustomer(request);
+        Integer id = underTest.addCustomer(request);
 
+        assertThat(id).isEqualTo(1);
         ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
-        verify(customerDao).insertCustomer(customerArgumentCaptor.capture());
+        verify(customerDao).insertIfEmailAbsent(customerArgumentCaptor.capture());
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
         assertThat(capturedCustomer.getId()).isNull();
         assertThat(capturedCustomer.getName()).isEqualTo(request.name());
         assertThat(capturedCustomer.getEmail()).isEqualTo(request.email());
         assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
-
+        verify(customerDao, never()).existsCustomerWithEmail(any());
     }
 
     @Test
     void addCustomer_Not_OK() {
         String email = "test@email.com";
-        when(customerDao.existsCustomerWithEmail(email)).thenReturn(true);
+        when(customerDao.insertIfEmailAbsent(any())).thenReturn(Optional.empty());
         CustomerRegistrationRequest request = getNewCustomerRegistrationRequest(email, "", null);
 
         assertThatThrownBy(() -> underTest.addCustomer(request))
@@ -93,52 +226,113 @@ class CustomerServiceTest {
         verify(customerDao, never()).insertCustomer(any());
     }
 
+    @Test
+    void addCustomers_ReportsOutcomePerItem() {
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("Ali", "ali@email.com", 20),
+                new CustomerRegistrationRequest("Taken", "taken@email.com", 30),
+                new CustomerRegistrationRequest("Ali again", "ali@email.com", 21),
+                new CustomerRegistrationRequest(null, "invalid@email.com", 40));
+        when(customerDao.selectExistingEmails(
+                Set.of("ali@email.com", "taken@email.com", "invalid@email.com")))
+                .thenReturn(Set.of("taken@email.com"));
+        when(customerDao.insertCustomers(anyList())).thenReturn(Set.of("ali@email.com"));
+
+        List<CustomerBatchResult> actual = underTest.addCustomers(requests.iterator());
+
+        assertThat(actual).containsExactly(
+                new CustomerBatchResult(0, "ali@email.com", CustomerBatchResult.Status.CREATED),
+                new CustomerBatchResult(1, "taken@email.com", CustomerBatchResult.Status.DUPLICATE),
+                new CustomerBatchResult(2, "ali@email.com", CustomerBatchResult.Status.DUPLICATE),
+                new CustomerBatchResult(3, "invalid@email.com", CustomerBatchResult.Status.INVALID));
+        verify(customerDao).insertCustomers(List.of(new Customer("Ali", "ali@email.com", 20)));
+    }
+
+    @Test
+    void addCustomers_InsertsInChunks() {
+        List<CustomerRegistrationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < CustomerService.BATCH_CHUNK_SIZE + 1; i++) {
+            requests.add(new CustomerRegistrationRequest("name", "email" + i + "@email.com", 20));
+        }
+        when(customerDao.selectExistingEmails(any())).thenReturn(Set.of());
+        when(customerDao.insertCustomers(anyList())).thenAnswer(invocation ->
+                invocation.<List<Customer>>getArgument(0).stream()
+                        .map(Customer::getEmail)
+                        .collect(Collectors.toSet()));
+
+        List<CustomerBatchResult> actual = underTest.addCustomers(requests.iterator());
+
+        assertThat(actual).hasSize(requests.size())
+                .allMatch(result -> result.status() == CustomerBatchResult.Status.CREATED);
+        assertThat(actual.get(CustomerService.BATCH_CHUNK_SIZE).index())
+                .isEqualTo(CustomerService.BATCH_CHUNK_SIZE);
+        verify(customerDao, times(2)).insertCustomers(anyList());
+    }
+
+    @Test
+    void addCustomers_ReportsDuplicateWhenInsertSkipsCustomer() {
+        // the email was taken by someone else after selectExistingEmails
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest("Ali", "ali@email.com", 20),
+                new CustomerRegistrationRequest("Bob", "bob@email.com", 30));
+        when(customerDao.selectExistingEmails(any())).thenReturn(Set.of());
+        when(customerDao.insertCustomers(anyList())).thenReturn(Set.of("bob@email.com"));
+
+        List<CustomerBatchResult> actual = underTest.addCustomers(requests.iterator());
+
+        assertThat(actual).containsExactly(
+                new CustomerBatchResult(0, "ali@email.com", CustomerBatchResult.Status.DUPLICATE),
+                new CustomerBatchResult(1, "bob@email.com", CustomerBatchResult.Status.CREATED));
+    }
+
     @Test
     void deleteCustomerById_Success() {
         int id = 1;
-        when(customerDao.existsCustomerById(id)).thenReturn(true);
+        when(customerDao.deleteCustomerById(id)).thenReturn(true);
 
         underTest.deleteCustomerById(id);
         verify(customerDao).deleteCustomerById(id);
+        verify(customerDao, never()).existsCustomerById(any());
     }
 
     @Test
     void deleteCustomerById_Not_Found() {
         int id = 1;
-        when(customerDao.existsCustomerById(id)).thenReturn(false);
+        when(customerDao.deleteCustomerById(id)).thenReturn(false);
 
         assertThatThrownBy(() -> underTest.deleteCustomerById(id))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("customer with id [%s] not found".formatted(id));
-        verify(customerDao, never()).deleteCustomerById(any());
     }
 
     @Test
     void updateAllCustomerProperties_Success() {
         int id = 1;
-        Customer customer = getNewCustomer(id);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        String newEmail = "testName@newEmail.com";
-        CustomerUpdateRequest updateRequest = getNewCustomerUpdateRequest(newEmail, "testName", 23);
-        when(customerDao.existsCustomerWithEmail(newEmail)).thenReturn(false);
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("testName", "testName@newEmail.com", 23);
+        Customer updated = new Customer(id, "testName", "testName@newEmail.com", 23);
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.of(updated));
 
-        underTest.updateCustomer(id, updateRequest);
+        Customer actual = underTest.updateCustomer(id, updateRequest);
 
+        assertThat(actual).isEqualTo(updated);
         ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
+        assertThat(capturedCustomer.getId()).isEqualTo(id);
         assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
         assertThat(capturedCustomer.getEmail()).isEqualTo(updateRequest.email());
         assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
+        verify(customerDao, never()).selectCustomerById(any());
     }
 
     @Test
     void updateNameCustomerProperties_Success() {
         int id = 1;
         Customer customer = getNewCustomer(id);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        CustomerUpdateRequest updateRequest = getNewCustomerUpdateRequest(null, "testName", null);
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("testName", null, null);
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.of(
+                new Customer(id, "testName", customer.getEmail(), customer.getAge())));
 
         underTest.updateCustomer(id, updateRequest);
 
@@ -147,18 +341,18 @@ class CustomerServiceTest {
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
         assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
+        assertThat(capturedCustomer.getEmail()).isNull();
+        assertThat(capturedCustomer.getAge()).isNull();
     }
 
     @Test
     void updateEmailCustomerProperties_Success() {
         int id = 1;
         Customer customer = getNewCustomer(id);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
         String newEmail = "testName@newEmail.com";
-        CustomerUpdateRequest updateRequest = getNewCustomerUpdateRequest(newEmail, null, null);
-        when(customerDao.existsCustomerWithEmail(newEmail)).thenReturn(false);
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, newEmail, null);
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.of(
+                new Customer(id, customer.getName(), newEmail, customer.getAge())));
 
         underTest.updateCustomer(id, updateRequest);
 
@@ -166,17 +360,18 @@ class CustomerServiceTest {
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
+        assertThat(capturedCustomer.getName()).isNull();
         assertThat(capturedCustomer.getEmail()).isEqualTo(updateRequest.email());
-        assertThat(capturedCustomer.getAge()).isEqualTo(customer.getAge());
+        assertThat(capturedCustomer.getAge()).isNull();
     }
 
     @Test
     void updateAgeCustomerProperties_Success() {
         int id = 1;
         Customer customer = getNewCustomer(id);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        CustomerUpdateRequest updateRequest = getNewCustomerUpdateRequest(null, null, 23);
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, null, 23);
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.of(
+                new Customer(id, customer.getName(), customer.getEmail(), 23)));
 
         underTest.updateCustomer(id, updateRequest);
 
@@ -184,38 +379,45 @@ class CustomerServiceTest {
         verify(customerDao).updateCustomer(customerArgumentCaptor.capture());
         Customer capturedCustomer = customerArgumentCaptor.getValue();
 
-        assertThat(capturedCustomer.getName()).isEqualTo(customer.getName());
-        assertThat(capturedCustomer.getEmail()).isEqualTo(customer.getEmail());
+        assertThat(capturedCustomer.getName()).isNull();
+        assertThat(capturedCustomer.getEmail()).isNull();
         assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
     }
 
     @Test
     void updateAllCustomerProperties_EmailAlreadyExist() {
         int id = 1;
-        Customer customer = getNewCustomer(id);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
-        String newEmail = "testName@newEmail.com";
-        CustomerUpdateRequest updateRequest = getNewCustomerUpdateRequest(newEmail, "testName", 23);
-        when(customerDao.existsCustomerWithEmail(newEmail)).thenReturn(true);
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("testName", "testName@newEmail.com", 23);
+        when(customerDao.updateCustomer(any())).thenThrow(new DuplicateKeyException("customer_email_unique"));
 
         assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
                 .isInstanceOf(DuplicateResourceException.class)
                 .hasMessage("email already taken");
-        verify(customerDao, never()).updateCustomer(any());
     }
 
     @Test
     void updateAllCustomerProperties_NoChanges() {
         int id = 1;
         Customer customer = getNewCustomer(id);
-        when(customerDao.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.empty());
+        when(customerDao.existsCustomerById(id)).thenReturn(true);
         CustomerUpdateRequest updateRequest = getNewCustomerUpdateRequest(customer.getEmail(), customer.getName(), customer.getAge());
 
         assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
                 .isInstanceOf(RequestValidationException.class)
                 .hasMessage("no data changes found");
+    }
 
-        verify(customerDao, never()).updateCustomer(any());
+    @Test
+    void updateCustomer_Not_Found() {
+        int id = 1;
+        when(customerDao.updateCustomer(any())).thenReturn(Optional.empty());
+        when(customerDao.existsCustomerById(id)).thenReturn(false);
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("testName", null, null);
+
+        assertThatThrownBy(() -> underTest.updateCustomer(id, updateRequest))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [%s] not found".formatted(id));
     }
 
     private static CustomerRegistrationRequest getNewCustomerRegistrationRequest(String email, String name,
@@ -253,4 +455,30 @@ class CustomerServiceTest {
                 id, "Ali", "ali@email.com", 2
         );
     }
+
+    @Test
+    void adjustCustomersAge_Success() {
+        List<Integer> ids = List.of(1, 2, 3);
+        when(customerDao.adjustCustomersAge(ids, -2)).thenReturn(2);
+
+        CustomerAgeAdjustmentResult actual = underTest.adjustCustomersAge(new CustomerAgeAdjustmentRequest(ids, -2));
+
+        assertThat(actual).isEqualTo(new CustomerAgeAdjustmentResult(2));
+    }
+
+    @Test
+    void adjustCustomersAge_Invalid() {
+        List<Integer> tooMany = IntStream.rangeClosed(0, CustomerService.MAX_AGE_ADJUSTMENT_IDS).boxed().toList();
+
+        assertThatThrownBy(() -> underTest.adjustCustomersAge(new CustomerAgeAdjustmentRequest(List.of(), 1)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("ids must not be empty or contain null");
+        assertThatThrownBy(() -> underTest.adjustCustomersAge(new CustomerAgeAdjustmentRequest(tooMany, 1)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("at most %s ids can be adjusted at once".formatted(CustomerService.MAX_AGE_ADJUSTMENT_IDS));
+        assertThatThrownBy(() -> underTest.adjustCustomersAge(new CustomerAgeAdjustmentRequest(List.of(1), 0)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("delta must not be zero");
+        verify(customerDao, never()).adjustCustomersAge(any(), anyInt());
+    }
 }
\ No newline at end of file
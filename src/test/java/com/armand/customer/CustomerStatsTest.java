@@ -0,0 +1,35 @@
+package com.armand.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerStatsTest {
+
+    @Test
+    void bucketIsTheDecadeWithEverythingFromHundredInTheLast() {
+        assertThat(CustomerStats.bucket(-1)).isZero();
+        assertThat(CustomerStats.bucket(9)).isZero();
+        assertThat(CustomerStats.bucket(10)).isEqualTo(1);
+        assertThat(CustomerStats.bucket(99)).isEqualTo(9);
+        assertThat(CustomerStats.bucket(100)).isEqualTo(10);
+        assertThat(CustomerStats.bucket(Integer.MAX_VALUE)).isEqualTo(10);
+    }
+
+    @Test
+    void ofListsEveryBucketAndTheirTotal() {
+        //Given
+        long[] customers = IntStream.range(0, CustomerStats.BUCKETS).asLongStream().toArray();
+
+        //When
+        CustomerStats actual = CustomerStats.of(customers);
+
+        //Then
+        assertThat(actual.customers()).isEqualTo(55);
+        assertThat(actual.ageBuckets()).hasSize(CustomerStats.BUCKETS);
+        assertThat(actual.ageBuckets().get(2)).isEqualTo(new CustomerStats.AgeBucket(20, 29, 2));
+        assertThat(actual.ageBuckets().get(10)).isEqualTo(new CustomerStats.AgeBucket(100, null, 10));
+    }
+}
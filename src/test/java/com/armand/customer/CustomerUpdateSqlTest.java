@@ -0,0 +1,43 @@
+package com.armand.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerUpdateSqlTest {
+
+    @Test
+    void statementOnlyTouchesChangedColumns() {
+        Customer update = new Customer(7, "Jamila", null, 19);
+
+        int columns = CustomerUpdateSql.changedColumns(update);
+
+        assertThat(columns).isEqualTo(CustomerUpdateSql.NAME | CustomerUpdateSql.AGE);
+        assertThat(CustomerUpdateSql.statement(columns))
+                .contains("SET name = ?, age = ?")
+                .contains("(name, age) IS DISTINCT FROM (?, ?)")
+                .contains("RETURNING id, name, email, age")
+                .doesNotContain("email =");
+        assertThat(CustomerUpdateSql.arguments(update, columns))
+                .containsExactly("Jamila", 19, 7, "Jamila", 19);
+    }
+
+    @Test
+    void numberedStatementNumbersPlaceholdersInArgumentOrder() {
+        int columns = CustomerUpdateSql.NAME | CustomerUpdateSql.EMAIL;
+
+        assertThat(CustomerUpdateSql.numberedStatement(columns))
+                .contains("SET name = $1, email = $2")
+                .contains("WHERE id = $3")
+                .contains("(name, email) IS DISTINCT FROM ($4, $5)")
+                .doesNotContain("?");
+    }
+
+    @Test
+    void noChangedColumns() {
+        Customer update = new Customer();
+        update.setId(7);
+
+        assertThat(CustomerUpdateSql.changedColumns(update)).isZero();
+    }
+}
@@ -0,0 +1,132 @@
+package com.armand.customer;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+class MeteredCustomerDaoTest {
+
+    private SimpleMeterRegistry registry;
+    private MeteredCustomerDao underTest;
+
+    private AutoCloseable autoCloseable;
+
+    @Mock
+    private CustomerDao customerDao;
+
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        registry = new SimpleMeterRegistry();
+        underTest = new MeteredCustomerDao(customerDao, registry, "jdbc", false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    @Test
+    void registersTimerPerMethodAndOutcomeUpFront() {
+        //When
+        //Then
+        assertThat(registry.find(MeteredCustomerDao.METRIC_NAME).timers()).hasSize(32);
+        assertThat(timer("selectCustomerById", "success").count()).isZero();
+    }
+
+    @Test
+    void recordsSuccessfulCall() {
+        //Given
+        Customer customer = new Customer(1, "Alex", "alex@gmail.com", 21);
+        when(customerDao.selectCustomerById(1)).thenReturn(Optional.of(customer));
+
+        //When
+        Optional<Customer> actual = underTest.selectCustomerById(1);
+
+        //Then
+        assertThat(actual).hasValue(customer);
+        assertThat(timer("selectCustomerById", "success").count()).isEqualTo(1);
+        assertThat(timer("selectCustomerById", "error").count()).isZero();
+    }
+
+    @Test
+    void recordsFailedCallAndRethrows() {
+        //Given
+        Customer customer = new Customer("Alex", "alex@gmail.com", 21);
+        when(customerDao.insertIfEmailAbsent(customer)).thenThrow(new DuplicateKeyException("taken"));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.insertIfEmailAbsent(customer)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(timer("insertIfEmailAbsent", "error").count()).isEqualTo(1);
+        assertThat(timer("insertIfEmailAbsent", "success").count()).isZero();
+    }
+
+    @Test
+    void timesStreamUntilClosed() {
+        //Given
+        when(customerDao.streamAllCustomers()).thenReturn(Stream.of(new Customer(1, "Alex", "alex@gmail.com", 21)));
+
+        //When
+        Stream<Customer> customers = underTest.streamAllCustomers();
+        long beforeClose = timer("streamAllCustomers", "success").count();
+        try (customers) {
+            customers.forEach(customer -> { });
+        }
+
+        //Then
+        assertThat(beforeClose).isZero();
+        assertThat(timer("streamAllCustomers", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void timesFailedStreamAsError() {
+        //Given
+        when(customerDao.streamAllCustomers()).thenReturn(Stream.generate(() -> {
+            throw new IllegalStateException("connection lost");
+        }));
+
+        //When
+        Stream<Customer> customers = underTest.streamAllCustomers();
+        try (customers) {
+            assertThatThrownBy(() -> customers.forEach(customer -> { }))
+                    .hasMessage("connection lost");
+        }
+
+        //Then
+        assertThat(timer("streamAllCustomers", "error").count()).isEqualTo(1);
+        assertThat(timer("streamAllCustomers", "success").count()).isZero();
+    }
+
+    @Test
+    void closesDelegateStream() {
+        //Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(customerDao.streamAllCustomers()).thenReturn(Stream.<Customer>empty().onClose(() -> closed.set(true)));
+
+        //When
+        underTest.streamAllCustomers().close();
+
+        //Then
+        assertThat(closed).isTrue();
+    }
+
+    private Timer timer(String method, String outcome) {
+        return registry.get(MeteredCustomerDao.METRIC_NAME)
+                .tags("method", method, "implementation", "jdbc", "outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,217 @@
+package com.armand.customer;
+
+import com.armand.exception.DuplicateResourceException;
+import com.armand.exception.RequestValidationException;
+import com.armand.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceTest {
+
+    private ReactiveCustomerService underTest;
+
+    @Mock
+    private ReactiveCustomerDao customerDao;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveCustomerService(customerDao);
+    }
+
+    @Test
+    void getCustomersPage_HasNextPage() {
+        //Given
+        List<Customer> customers = List.of(
+                new Customer(1, "Alex", "alex@gmail.com", 21),
+                new Customer(2, "Jamila", "jamila@gmail.com", 19),
+                new Customer(3, "Foo", "foo@gmail.com", 30));
+        when(customerDao.selectCustomersAfter(0, 3)).thenReturn(Flux.fromIterable(customers));
+
+        //When
+        CustomerPage actual = underTest.getCustomersPage(null, 2).block();
+
+        //Then
+        assertThat(actual.customers()).containsExactly(customers.get(0), customers.get(1));
+        assertThat(CustomerCursor.decode(actual.nextCursor())).isEqualTo(2);
+    }
+
+    @Test
+    void getCustomersPage_SizeTooLarge() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getCustomersPage(null, CustomerService.MAX_PAGE_SIZE + 1).block())
+                .isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void queryCustomers_MinAgeAboveMaxAge() {
+        //When
+        Flux<Customer> actual = underTest.queryCustomers(30, 18, "age", null);
+
+        //Then
+        assertThatThrownBy(actual::blockLast)
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("minAge must not be greater than maxAge");
+        verify(customerDao, never()).selectCustomers(any());
+    }
+
+    @Test
+    void getCustomerById_Not_Found() {
+        //Given
+        when(customerDao.selectCustomerById(1)).thenReturn(Mono.empty());
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getCustomer(1).block())
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("customer with id [1] not found");
+    }
+
+    @Test
+    void addCustomer_Not_OK() {
+        //Given
+        when(customerDao.insertIfEmailAbsent(any())).thenReturn(Mono.empty());
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.addCustomer(
+                new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21)).block())
+                .isInstanceOf(DuplicateResourceException.class);
+    }
+
+    @Test
+    void addCustomers_ReportsOutcomePerItem() {
+        //Given
+        when(customerDao.insertIfEmailAbsent(any()))
+                .thenReturn(Mono.just(1))
+                .thenReturn(Mono.empty());
+
+        //When
+        List<CustomerBatchResult> actual = underTest.addCustomers(Flux.just(
+                Optional.of(new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21)),
+                Optional.of(new CustomerRegistrationRequest("Alex", null, 21)),
+                Optional.of(new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21))))
+                .collectList()
+                .block();
+
+        //Then
+        assertThat(actual).containsExactly(
+                new CustomerBatchResult(0, "alex@gmail.com", CustomerBatchResult.Status.CREATED),
+                new CustomerBatchResult(1, null, CustomerBatchResult.Status.INVALID),
+                new CustomerBatchResult(2, "alex@gmail.com", CustomerBatchResult.Status.DUPLICATE));
+    }
+
+    @Test
+    void addCustomers_NullRequestIsInvalid() {
+        //Given
+        when(customerDao.insertIfEmailAbsent(any())).thenReturn(Mono.just(1));
+
+        //When
+        List<CustomerBatchResult> actual = underTest.addCustomers(Flux.just(
+                Optional.empty(),
+                Optional.of(new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21))))
+                .collectList()
+                .block();
+
+        //Then
+        assertThat(actual).containsExactly(
+                new CustomerBatchResult(0, null, CustomerBatchResult.Status.INVALID),
+                new CustomerBatchResult(1, "alex@gmail.com", CustomerBatchResult.Status.CREATED));
+    }
+
+    @Test
+    void deleteCustomerById_Not_Found() {
+        //Given
+        when(customerDao.deleteCustomerById(1)).thenReturn(Mono.just(false));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.deleteCustomerById(1).block())
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void updateCustomer_TakenEmail() {
+        //Given
+        when(customerDao.updateCustomer(any())).thenReturn(Mono.error(new DuplicateKeyException("taken")));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(
+                1, new CustomerUpdateRequest(null, "jamila@gmail.com", null)).block())
+                .isInstanceOf(DuplicateResourceException.class);
+        verify(customerDao, never()).existsCustomerById(any());
+    }
+
+    @Test
+    void updateCustomer_NoChanges() {
+        //Given
+        when(customerDao.updateCustomer(any())).thenReturn(Mono.empty());
+        when(customerDao.existsCustomerById(1)).thenReturn(Mono.just(true));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(
+                1, new CustomerUpdateRequest("Alex", null, null)).block())
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("no data changes found");
+    }
+
+    @Test
+    void updateCustomer_Not_Found() {
+        //Given
+        when(customerDao.updateCustomer(any())).thenReturn(Mono.empty());
+        when(customerDao.existsCustomerById(1)).thenReturn(Mono.just(false));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.updateCustomer(
+                1, new CustomerUpdateRequest("Alex", null, null)).block())
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void adjustCustomersAge_Success() {
+        //Given
+        List<Integer> ids = List.of(1, 2, 3);
+        when(customerDao.adjustCustomersAge(ids, -2)).thenReturn(Mono.just(2));
+
+        //When
+        CustomerAgeAdjustmentResult actual = underTest.adjustCustomersAge(
+                new CustomerAgeAdjustmentRequest(ids, -2)).block();
+
+        //Then
+        assertThat(actual).isEqualTo(new CustomerAgeAdjustmentResult(2));
+    }
+
+    @Test
+    void adjustCustomersAge_Invalid() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.adjustCustomersAge(new CustomerAgeAdjustmentRequest(null, 1)).block())
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("ids must not be empty or contain null");
+        assertThatThrownBy(() -> underTest.adjustCustomersAge(new CustomerAgeAdjustmentRequest(List.of(1), 0)).block())
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("delta must not be zero");
+        verify(customerDao, never()).adjustCustomersAge(any(), anyInt());
+    }
+}
@@ -1,12 +1,17 @@
 package com.armand.journey;
 
 import com.armand.customer.Customer;
+import com.armand.customer.CustomerAgeAdjustmentRequest;
+import com.armand.customer.CustomerAgeAdjustmentResult;
+import com.armand.customer.CustomerBatchResult;
 import com.armand.customer.CustomerRegistrationRequest;
+import com.armand.customer.CustomerStats;
 import com.armand.customer.CustomerUpdateRequest;
 import com.github.javafaker.Faker;
 import com.github.javafaker.Name;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
@@ -22,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
 @SpringBootTest(webEnvironment = RANDOM_PORT)
+@AutoConfigureObservability
 public class CustomerIntegrationTest {
 
     @Autowired
@@ -50,7 +56,9 @@ public class CustomerIntegrationTest {
                 .body(Mono.just(request), CustomerRegistrationRequest.class)
                 .exchange()
                 .expectStatus()
-                .isOk();
+                .isOk()
+                .expectHeader()
+                .valueMatches("Location", ".*/api/v1/customers/\\d+");
 
         // get all customers
         List<Customer> allCustomers = webTestClient.get()
@@ -221,4 +229,292 @@ public class CustomerIntegrationTest {
 
         assertThat(updatedCustomer).isEqualTo(expected);
     }
+
+    @Test
+    void canExportCustomers() {
+        // create a registration request
+        Faker faker = new Faker();
+        Name fakerName = faker.name();
+        String name = fakerName.fullName();
+        String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@email.com";
+        int age = RANDOM.nextInt(1, 100);
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                name, email, age
+        );
+
+        //send a post request
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // export all customers
+        String export = webTestClient.get()
+                .uri(CUSTOMER_URI + "/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        // make sure that customer is exported on its own line
+        assertThat(export).isNotNull();
+        assertThat(export.lines())
+                .anySatisfy(line -> assertThat(line).contains(email).startsWith("{").endsWith("}"));
+    }
+
+    @Test
+    void canSearchCustomers() {
+        // register a customer with a name nobody else has
+        Faker faker = new Faker();
+        String marker = UUID.randomUUID().toString();
+        String name = faker.name().firstName() + " " + marker;
+        String email = faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com";
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerRegistrationRequest(name, email, RANDOM.nextInt(1, 100)))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // search for a piece of the name
+        List<Customer> found = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(CUSTOMER_URI + "/search")
+                        .queryParam("q", marker.substring(4, 20))
+                        .build())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Customer.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(found).extracting(Customer::getEmail).containsExactly(email);
+
+        // too short queries are rejected
+        webTestClient.get()
+                .uri(CUSTOMER_URI + "/search?q=ab")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canQueryCustomersByAgeSortedByName() {
+        // register customers with an age nobody else has
+        Faker faker = new Faker();
+        int age = 1_000 + RANDOM.nextInt(1_000_000);
+        for (String name : List.of("Jamila", "Alex")) {
+            webTestClient.post()
+                    .uri(CUSTOMER_URI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CustomerRegistrationRequest(
+                            name, faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com", age))
+                    .exchange()
+                    .expectStatus()
+                    .isOk();
+        }
+
+        // query them by age, sorted by name
+        List<Customer> customers = webTestClient.get()
+                .uri(CUSTOMER_URI + "?minAge={age}&maxAge={age}&sort=name", age, age)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Customer.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(customers).extracting(Customer::getName).containsExactly("Alex", "Jamila");
+
+        // unknown orders are rejected
+        webTestClient.get()
+                .uri(CUSTOMER_URI + "?sort=email")
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canGetCustomerStats() {
+        // count the customers in the 100 and over bucket
+        Faker faker = new Faker();
+        CustomerStats before = getCustomerStats();
+
+        // register a customer in it
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerRegistrationRequest(
+                        faker.name().fullName(), faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com", 101))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        // the stats count it straight away
+        CustomerStats after = getCustomerStats();
+        assertThat(after.customers()).isGreaterThan(before.customers());
+        assertThat(after.ageBuckets().get(10).customers() - before.ageBuckets().get(10).customers())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void canAdjustTheAgeOfCustomers() {
+        // register customers with an age nobody else has
+        Faker faker = new Faker();
+        int age = 1_000 + RANDOM.nextInt(1_000_000);
+        for (int i = 0; i < 2; i++) {
+            webTestClient.post()
+                    .uri(CUSTOMER_URI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CustomerRegistrationRequest(
+                            faker.name().fullName(), faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com", age))
+                    .exchange()
+                    .expectStatus()
+                    .isOk();
+        }
+        List<Integer> ids = queryCustomersAged(age).stream().map(Customer::getId).toList();
+
+        // make them a year older in one request
+        CustomerAgeAdjustmentResult result = webTestClient.post()
+                .uri(CUSTOMER_URI + "/age-adjustments")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerAgeAdjustmentRequest(ids, 1))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerAgeAdjustmentResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(result).isEqualTo(new CustomerAgeAdjustmentResult(2));
+        assertThat(queryCustomersAged(age)).isEmpty();
+        assertThat(queryCustomersAged(age + 1)).extracting(Customer::getId).containsExactlyElementsOf(ids);
+
+        // a zero delta is rejected
+        webTestClient.post()
+                .uri(CUSTOMER_URI + "/age-adjustments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerAgeAdjustmentRequest(ids, 0))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canRegisterCustomersInBatch() {
+        // create registration requests, the last one repeats an email of the batch
+        Faker faker = new Faker();
+        String email = faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com";
+        String otherEmail = faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com";
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest(faker.name().fullName(), email, RANDOM.nextInt(1, 100)),
+                new CustomerRegistrationRequest(faker.name().fullName(), otherEmail, RANDOM.nextInt(1, 100)),
+                new CustomerRegistrationRequest(faker.name().fullName(), email, RANDOM.nextInt(1, 100)));
+
+        //send a batch post request
+        List<CustomerBatchResult> results = webTestClient.post()
+                .uri(CUSTOMER_URI + "/batch")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CustomerBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(results).containsExactly(
+                new CustomerBatchResult(0, email, CustomerBatchResult.Status.CREATED),
+                new CustomerBatchResult(1, otherEmail, CustomerBatchResult.Status.CREATED),
+                new CustomerBatchResult(2, email, CustomerBatchResult.Status.DUPLICATE));
+    }
+
+    @Test
+    void rejectsMalformedCustomerBatch() {
+        // a field of the wrong type, a truncated array, a body that is not json
+        List<String> bodies = List.of(
+                "[{\"name\": \"Ali\", \"age\": \"twenty\"}]",
+                "[{\"name\": \"Ali\",",
+                "{]");
+        for (String body : bodies) {
+            webTestClient.post()
+                    .uri(CUSTOMER_URI + "/batch")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body)
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest();
+        }
+    }
+
+    @Test
+    void exposesMetricsInPrometheusFormat() {
+        // a lookup of an unknown customer goes through the dao and ends in a 404
+        webTestClient.get()
+                .uri(CUSTOMER_URI + "/{id}", Integer.MAX_VALUE)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+
+        // every dao method exports a histogram per outcome, more than the default 256 KiB buffer
+        String metrics = webTestClient.mutate()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .build()
+                .get()
+                .uri("/actuator/prometheus?includedNames={names}", String.join(",",
+                        "customer_dao_seconds_bucket",
+                        "customer_service_seconds_count",
+                        "customer_exceptions_total",
+                        "hikaricp_connections_active"))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(metrics)
+                .contains("customer_dao_seconds_bucket{implementation=\"jdbc\",method=\"selectCustomerById\",outcome=\"success\"")
+                .contains("customer_service_seconds_count{class=\"com.armand.customer.CustomerService\"")
+                .contains("customer_exceptions_total{exception=\"ResourceNotFoundException\",}")
+                .contains("hikaricp_connections_active");
+    }
+
+    private List<Customer> queryCustomersAged(int age) {
+        return webTestClient.get()
+                .uri(CUSTOMER_URI + "?minAge={age}&maxAge={age}&sort=id", age, age)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(Customer.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private CustomerStats getCustomerStats() {
+        return webTestClient.get()
+                .uri(CUSTOMER_URI + "/stats")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerStats.class)
+                .returnResult()
+                .getResponseBody();
+    }
 }
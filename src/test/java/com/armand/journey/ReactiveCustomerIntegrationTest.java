@@ -0,0 +1,237 @@
+package com.armand.journey;
+
+import com.armand.customer.Customer;
+import com.armand.customer.CustomerAgeAdjustmentRequest;
+import com.armand.customer.CustomerAgeAdjustmentResult;
+import com.armand.customer.CustomerBatchResult;
+import com.armand.customer.CustomerPage;
+import com.armand.customer.CustomerRegistrationRequest;
+import com.armand.customer.CustomerUpdateRequest;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveCustomerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private static final String CUSTOMER_URI = "/api/v1/customers";
+
+    @Test
+    void canRegisterUpdateAndDeleteACustomer() {
+        // register a customer
+        Faker faker = new Faker();
+        String name = faker.name().fullName();
+        String email = faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com";
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(name, email, 30);
+
+        String location = webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getLocation()
+                .getPath();
+        assertThat(location).matches(".*/api/v1/customers/\\d+");
+
+        // registering the same email again is a conflict
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(409);
+
+        // update it
+        webTestClient.put()
+                .uri(location)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerUpdateRequest(null, null, 31)), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        Customer updated = webTestClient.get()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(updated).usingRecursiveComparison().ignoringFields("id").isEqualTo(new Customer(name, email, 31));
+
+        // the same update again changes nothing
+        webTestClient.put()
+                .uri(location)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerUpdateRequest(null, null, 31)), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+
+        // delete it
+        webTestClient.delete()
+                .uri(location)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        webTestClient.get()
+                .uri(location)
+                .exchange()
+                .expectStatus()
+                .isNotFound();
+    }
+
+    @Test
+    void canAdjustTheAgeOfCustomers() {
+        // register a customer
+        Faker faker = new Faker();
+        String email = faker.name().lastName() + "-" + UUID.randomUUID() + "@email.com";
+        String location = webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerRegistrationRequest(faker.name().fullName(), email, 30)),
+                        CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getLocation()
+                .getPath();
+        Integer id = Integer.valueOf(location.substring(location.lastIndexOf('/') + 1));
+
+        // make it a year older, an unknown id is ignored
+        CustomerAgeAdjustmentResult result = webTestClient.post()
+                .uri(CUSTOMER_URI + "/age-adjustments")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerAgeAdjustmentRequest(List.of(id, -1), 1))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerAgeAdjustmentResult.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(result).isEqualTo(new CustomerAgeAdjustmentResult(1));
+
+        Customer adjusted = webTestClient.get()
+                .uri(location)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(Customer.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(adjusted.getAge()).isEqualTo(31);
+
+        // a zero delta is rejected
+        webTestClient.post()
+                .uri(CUSTOMER_URI + "/age-adjustments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CustomerAgeAdjustmentRequest(List.of(id), 0))
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
+    @Test
+    void canPageAndExportCustomers() {
+        // make sure there are at least two pages of one customer
+        Faker faker = new Faker();
+        List<CustomerRegistrationRequest> requests = List.of(
+                new CustomerRegistrationRequest(faker.name().fullName(), UUID.randomUUID() + "@email.com", 20),
+                new CustomerRegistrationRequest(faker.name().fullName(), UUID.randomUUID() + "@email.com", 20));
+        List<CustomerBatchResult> results = webTestClient.post()
+                .uri(CUSTOMER_URI + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CustomerBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(results).extracting(CustomerBatchResult::status)
+                .containsOnly(CustomerBatchResult.Status.CREATED);
+
+        // page through the first page
+        CustomerPage page = webTestClient.get()
+                .uri(CUSTOMER_URI + "/page?size=1")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .valueMatches("Link", "<.*/api/v1/customers/page\\?size=1&cursor=.+>; rel=\"next\"")
+                .expectBody(CustomerPage.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(page.customers()).hasSize(1);
+
+        // the export contains both new customers
+        List<Customer> export = webTestClient.get()
+                .uri(CUSTOMER_URI + "/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(Customer.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertThat(export).extracting(Customer::getEmail)
+                .contains(requests.get(0).email(), requests.get(1).email());
+    }
+
+    @Test
+    void reportsNullElementOfABatchAsInvalid() {
+        // a null between two registrations keeps the indexes of the ones after it
+        Faker faker = new Faker();
+        String email = UUID.randomUUID() + "@email.com";
+        String otherEmail = UUID.randomUUID() + "@email.com";
+        List<CustomerRegistrationRequest> requests = Arrays.asList(
+                new CustomerRegistrationRequest(faker.name().fullName(), email, 20),
+                null,
+                new CustomerRegistrationRequest(faker.name().fullName(), otherEmail, 20));
+
+        List<CustomerBatchResult> results = webTestClient.post()
+                .uri(CUSTOMER_URI + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBodyList(CustomerBatchResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(results).containsExactly(
+                new CustomerBatchResult(0, email, CustomerBatchResult.Status.CREATED),
+                new CustomerBatchResult(1, null, CustomerBatchResult.Status.INVALID),
+                new CustomerBatchResult(2, otherEmail, CustomerBatchResult.Status.CREATED));
+    }
+}
@@ -0,0 +1,76 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerJson;
+import com.armand.customer.CustomerRegistrationRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpLoadTargetTest {
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+            exchange.getResponseHeaders().add("Location", "/app/api/v1/customers/42");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void keepsContextPathOfBaseUrl() {
+        //Given
+        HttpLoadTarget underTest = target("/app");
+
+        //When
+        int id = underTest.register(new CustomerRegistrationRequest("Alex", "alex@gmail.com", 21));
+        underTest.read(id);
+        underTest.delete(id);
+
+        //Then
+        assertThat(id).isEqualTo(42);
+        assertThat(requests).containsExactly(
+                "POST /app/api/v1/customers",
+                "GET /app/api/v1/customers/42",
+                "DELETE /app/api/v1/customers/42");
+    }
+
+    @Test
+    void resolvesAgainstBaseUrlWithTrailingSlash() {
+        //Given
+        HttpLoadTarget underTest = target("/app/");
+
+        //When
+        underTest.read(7);
+
+        //Then
+        assertThat(requests).containsExactly("GET /app/api/v1/customers/7");
+    }
+
+    private HttpLoadTarget target(String contextPath) {
+        URI baseUrl = URI.create("http://localhost:" + server.getAddress().getPort() + contextPath);
+        return new HttpLoadTarget(HttpClient.newHttpClient(), baseUrl, new CustomerJson(new ObjectMapper()));
+    }
+}
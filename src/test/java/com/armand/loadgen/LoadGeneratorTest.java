@@ -0,0 +1,76 @@
+package com.armand.loadgen;
+
+import com.armand.customer.CustomerListDataAccessService;
+import com.armand.customer.CustomerService;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadGeneratorTest {
+
+    @Test
+    void runsMixAgainstService() throws InterruptedException {
+        //Given
+        CustomerListDataAccessService customerDao = new CustomerListDataAccessService();
+        LoadGenerator underTest = new LoadGenerator(
+                new ServiceLoadTarget(new CustomerService(customerDao)),
+                properties(0, new LoadGeneratorProperties.Mix(70, 10, 15, 5)));
+
+        //When
+        LoadReport report = underTest.run();
+
+        //Then
+        assertThat(report.errors()).isZero();
+        assertThat(report.count()).isPositive();
+        assertThat(report.operations()).allSatisfy((operation, result) -> assertThat(result.count()).isPositive());
+        assertThat(report.operations().get(Operation.READ).count())
+                .isGreaterThan(report.operations().get(Operation.DELETE).count());
+        // deleted customers are replaced, so the key space never shrinks
+        assertThat(customerDao.selectAllCustomers()).hasSizeGreaterThanOrEqualTo(100);
+        assertThat(report.format()).contains("read", "write", "update", "delete", "total");
+    }
+
+    @Test
+    void fixedRateLimitsThroughput() throws InterruptedException {
+        //Given
+        LoadGenerator underTest = new LoadGenerator(
+                new ServiceLoadTarget(new CustomerService(new CustomerListDataAccessService())),
+                properties(500, new LoadGeneratorProperties.Mix(1, 0, 0, 0)));
+
+        //When
+        LoadReport report = underTest.run();
+
+        //Then
+        assertThat(report.count()).isBetween(100L, 160L);
+    }
+
+    @Test
+    void rejectsEmptyMix() {
+        //When
+        //Then
+        assertThatThrownBy(() -> new LoadGenerator(
+                new ServiceLoadTarget(new CustomerService(new CustomerListDataAccessService())),
+                properties(0, new LoadGeneratorProperties.Mix(0, 0, 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LoadGeneratorProperties properties(int rate, LoadGeneratorProperties.Mix mix) {
+        return new LoadGeneratorProperties(
+                true,
+                LoadGeneratorProperties.Target.SERVICE,
+                URI.create("http://localhost:8080"),
+                4,
+                Duration.ofMillis(250),
+                Duration.ofMillis(50),
+                rate,
+                100,
+                LoadGeneratorProperties.KeyDistribution.ZIPFIAN,
+                0.99,
+                mix,
+                false);
+    }
+}
@@ -0,0 +1,38 @@
+package com.armand.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZipfianKeyChooserTest {
+
+    @Test
+    void favoursLowKeysAndStaysInRange() {
+        //Given
+        int keys = 1_000;
+        ZipfianKeyChooser underTest = new ZipfianKeyChooser(keys, 0.99);
+        int[] hits = new int[keys];
+
+        //When
+        IntStream.range(0, 200_000).forEach(i -> hits[underTest.next()]++);
+
+        //Then
+        int hottestTen = IntStream.range(0, 10).map(i -> hits[i]).sum();
+        int coldestHalf = IntStream.range(keys / 2, keys).map(i -> hits[i]).sum();
+        assertThat(hits[0]).isGreaterThan(hits[1]).isGreaterThan(hits[100]);
+        assertThat(hottestTen).isGreaterThan(coldestHalf);
+        assertThat(IntStream.of(hits).sum()).isEqualTo(200_000);
+    }
+
+    @Test
+    void rejectsExponentOutsideRange() {
+        //When
+        //Then
+        assertThatThrownBy(() -> new ZipfianKeyChooser(10, 1.0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exponent in (0, 1)");
+    }
+}
@@ -0,0 +1,70 @@
+package com.armand.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+
+    @Test
+    void dropsEverySampledEventAtZeroRate() {
+        //Given
+        SamplingFilter underTest = filter(0.0);
+
+        //When
+        //Then
+        assertThat(underTest.decide(event(Level.DEBUG))).isEqualTo(FilterReply.DENY);
+        assertThat(underTest.decide(event(Level.TRACE))).isEqualTo(FilterReply.DENY);
+        assertThat(underTest.decide(event(Level.INFO))).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(underTest.decide(event(Level.WARN))).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void keepsAboutRateShareOfSampledEvents() {
+        //Given
+        SamplingFilter underTest = filter(0.1);
+
+        //When
+        long kept = IntStream.range(0, 100_000)
+                .mapToObj(i -> underTest.decide(event(Level.DEBUG)))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        //Then
+        assertThat(kept).isBetween(9_000L, 11_000L);
+    }
+
+    @Test
+    void doesNotStartWithInvalidRate() {
+        //Given
+        SamplingFilter underTest = filter(1.5);
+
+        //When
+        //Then
+        assertThat(underTest.isStarted()).isFalse();
+        assertThat(underTest.decide(event(Level.DEBUG))).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    private SamplingFilter filter(double rate) {
+        SamplingFilter filter = new SamplingFilter();
+        filter.setContext(loggerContext);
+        filter.setRate(rate);
+        filter.start();
+        return filter;
+    }
+
+    private LoggingEvent event(Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLevel(level);
+        event.setMessage("customer deleted id={} rows={}");
+        return event;
+    }
+}
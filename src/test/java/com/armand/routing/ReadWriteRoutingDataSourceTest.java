@@ -0,0 +1,120 @@
+package com.armand.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource firstPool = mock(DataSource.class);
+    private final DataSource secondPool = mock(DataSource.class);
+
+    private Replica first;
+    private Replica second;
+    private ReadWriteRoutingDataSource underTest;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstPool.getConnection()).thenReturn(firstConnection);
+        when(secondPool.getConnection()).thenReturn(secondConnection);
+        first = new Replica("replica-0", firstPool);
+        second = new Replica("replica-1", secondPool);
+        underTest = new ReadWriteRoutingDataSource(primary, List.of(first, second));
+    }
+
+    @Test
+    void writesGoToPrimary() throws SQLException {
+        //When
+        //Then
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        assertThat(underTest.replicaConnections()).isZero();
+    }
+
+    @Test
+    void readsRoundRobinOverReplicas() throws SQLException {
+        //When
+        //Then
+        try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+            assertThat(underTest.getConnection()).isSameAs(firstConnection);
+            assertThat(underTest.getConnection()).isSameAs(secondConnection);
+            assertThat(underTest.getConnection()).isSameAs(firstConnection);
+        }
+        assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        assertThat(underTest.replicaConnections()).isEqualTo(3);
+    }
+
+    @Test
+    void readsOfClientPinnedToPrimaryGoToPrimary() throws SQLException {
+        //When
+        //Then
+        try (DataSourceRoute.Scope pinned = DataSourceRoute.pinnedToPrimary();
+             DataSourceRoute.Scope readOnly = DataSourceRoute.readOnly()) {
+            assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        }
+    }
+
+    @Test
+    void skipsUnavailableReplicaAndFallsBackToPrimary() throws SQLException {
+        //Given
+        first.update(false, 30);
+
+        //When
+        //Then
+        try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+            assertThat(underTest.getConnection()).isSameAs(secondConnection);
+            assertThat(underTest.getConnection()).isSameAs(secondConnection);
+            second.update(false, 30);
+            assertThat(underTest.getConnection()).isSameAs(primaryConnection);
+        }
+        assertThat(underTest.fallbacks()).isEqualTo(1);
+    }
+
+    @Test
+    void marksReplicaDownWhenItRefusesConnections() throws SQLException {
+        //Given
+        when(firstPool.getConnection()).thenThrow(new SQLTransientConnectionException(
+                "HikariPool-2 - Connection is not available, request timed out after 1000ms.", "08001"));
+
+        //When
+        Connection connection;
+        try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+            connection = underTest.getConnection();
+        }
+
+        //Then
+        assertThat(connection).isSameAs(secondConnection);
+        assertThat(first.isAvailable()).isFalse();
+        assertThat(second.isAvailable()).isTrue();
+    }
+
+    @Test
+    void keepsReplicaUpWhenItsPoolIsExhausted() throws SQLException {
+        //Given
+        when(firstPool.getConnection()).thenThrow(new SQLTransientConnectionException(
+                "HikariPool-2 - Connection is not available, request timed out after 1000ms."));
+
+        //When
+        Connection connection;
+        try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+            connection = underTest.getConnection();
+        }
+
+        //Then
+        assertThat(connection).isSameAs(secondConnection);
+        assertThat(first.isAvailable()).isTrue();
+    }
+}
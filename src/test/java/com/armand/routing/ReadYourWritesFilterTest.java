@@ -0,0 +1,75 @@
+package com.armand.routing;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final ReadYourWritesFilter underTest =
+            new ReadYourWritesFilter(Duration.ofSeconds(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void writeSetsCookieUntilEndOfWindow() throws Exception {
+        //Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/customers");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        underTest.doFilter(request, response, new MockFilterChain());
+
+        //Then
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(cookie.getValue()).isEqualTo(Long.toString(NOW.plusSeconds(5).toEpochMilli()));
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+    }
+
+    @Test
+    void readWithinWindowIsPinnedToPrimary() throws Exception {
+        //Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW.toEpochMilli() + 1)));
+
+        //When
+        boolean replica = routedToReplica(request);
+
+        //Then
+        assertThat(replica).isFalse();
+    }
+
+    @Test
+    void readAfterWindowGoesToReplica() throws Exception {
+        //Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/customers/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(NOW.toEpochMilli())));
+
+        //When
+        boolean replica = routedToReplica(request);
+
+        //Then
+        assertThat(replica).isTrue();
+    }
+
+    private boolean routedToReplica(MockHttpServletRequest request) throws Exception {
+        AtomicBoolean replica = new AtomicBoolean();
+        underTest.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            try (DataSourceRoute.Scope ignored = DataSourceRoute.readOnly()) {
+                replica.set(DataSourceRoute.useReplica());
+            }
+        });
+        return replica.get();
+    }
+}
@@ -0,0 +1,94 @@
+package com.armand.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaMonitorTest {
+
+    private final DataSource dataSource = mock(DataSource.class);
+    private final ResultSet lag = mock(ResultSet.class);
+
+    private Replica replica;
+    private ReplicaMonitor underTest;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaMonitor.LAG_QUERY)).thenReturn(lag);
+        when(lag.getBoolean("in_recovery")).thenReturn(true);
+        when(lag.getBoolean("streaming")).thenReturn(true);
+        replica = new Replica("replica-0", dataSource);
+        underTest = new ReplicaMonitor(List.of(replica), Duration.ofSeconds(5), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void takesLaggingReplicaOutOfRotationUntilItCatchesUp() throws SQLException {
+        //Given
+        when(lag.getDouble("lag_seconds")).thenReturn(12.5, 0.2);
+
+        //When
+        underTest.check(replica);
+
+        //Then
+        assertThat(replica.isAvailable()).isFalse();
+        assertThat(replica.lagSeconds()).isEqualTo(12.5);
+
+        underTest.check(replica);
+        assertThat(replica.isAvailable()).isTrue();
+    }
+
+    @Test
+    void takesServerNotInRecoveryOutOfRotation() throws SQLException {
+        //Given a promoted replica, or one pointed at the primary
+        when(lag.getBoolean("in_recovery")).thenReturn(false);
+
+        //When
+        underTest.check(replica);
+
+        //Then
+        assertThat(replica.isAvailable()).isFalse();
+    }
+
+    @Test
+    void takesReplicaWithoutWalReceiverOutOfRotation() throws SQLException {
+        //Given it replayed everything it received before losing the primary
+        when(lag.getBoolean("streaming")).thenReturn(false, true);
+        when(lag.getDouble("lag_seconds")).thenReturn(0.0);
+
+        //When
+        underTest.check(replica);
+
+        //Then
+        assertThat(replica.isAvailable()).isFalse();
+
+        underTest.check(replica);
+        assertThat(replica.isAvailable()).isTrue();
+    }
+
+    @Test
+    void takesUnreachableReplicaOutOfRotation() throws SQLException {
+        //Given
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        //When
+        underTest.check(replica);
+
+        //Then
+        assertThat(replica.isAvailable()).isFalse();
+    }
+}
@@ -0,0 +1,93 @@
+package com.armand.routing;
+
+import com.armand.threads.ConnectionLimitingDataSource;
+import com.armand.threads.VirtualThreadConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoutingConfigTest {
+
+    // routing registered first, as classpath scanning does. lazy, so the
+    // virtual thread executors are not built on a jvm without virtual threads
+    private final ApplicationContextRunner contextRunner = contextRunner(() -> primaryPool(7));
+
+    @Test
+    void connectionLimitWrapsPrimaryPoolOnly() {
+        //When
+        //Then
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            DataSource dataSource = context.getBean(DataSource.class);
+            assertThat(dataSource).isInstanceOf(ReadWriteRoutingDataSource.class);
+
+            ReadWriteRoutingDataSource routing = (ReadWriteRoutingDataSource) dataSource;
+            assertThat(routing.getTargetDataSource()).isInstanceOf(ConnectionLimitingDataSource.class);
+            assertThat(limit(dataSource).availablePermits()).isEqualTo(7);
+            assertThat(routing.replicas())
+                    .singleElement()
+                    .extracting(Replica::dataSource)
+                    .isInstanceOf(HikariDataSource.class);
+        });
+    }
+
+    @Test
+    void maxConnectionsLimitsPrimaryPoolOnly() {
+        //When
+        //Then
+        contextRunner
+                .withPropertyValues("threads.virtual.max-connections=3")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    DataSource dataSource = context.getBean(DataSource.class);
+                    assertThat(limit(dataSource).availablePermits()).isEqualTo(3);
+                    assertThat(((ReadWriteRoutingDataSource) dataSource).replicas())
+                            .singleElement()
+                            .extracting(Replica::dataSource)
+                            .isInstanceOf(HikariDataSource.class);
+                });
+    }
+
+    @Test
+    void connectionLimitTakesHikariDefaultForUnsizedPool() {
+        //When
+        //Then
+        contextRunner(() -> primaryPool(0)).run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(limit(context.getBean(DataSource.class)).availablePermits()).isEqualTo(10);
+        });
+    }
+
+    private static ApplicationContextRunner contextRunner(Supplier<DataSource> primaryPool) {
+        return new ApplicationContextRunner()
+                .withInitializer(context -> context.addBeanFactoryPostProcessor(
+                        new LazyInitializationBeanFactoryPostProcessor()))
+                .withUserConfiguration(RoutingConfig.class, VirtualThreadConfig.class)
+                .withBean(DataSource.class, primaryPool)
+                .withPropertyValues(
+                        "datasource.routing.enabled=true",
+                        "datasource.routing.replicas[0].url=jdbc:postgresql://localhost:5433/customer",
+                        "threads.virtual.enabled=true");
+    }
+
+    private static ConnectionLimitingDataSource limit(DataSource dataSource) throws SQLException {
+        return dataSource.unwrap(ConnectionLimitingDataSource.class);
+    }
+
+    // not started, the pool opens connections on first use
+    private static HikariDataSource primaryPool(int maximumPoolSize) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:postgresql://localhost:5432/customer");
+        if (maximumPoolSize > 0) {
+            pool.setMaximumPoolSize(maximumPoolSize);
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,95 @@
+package com.armand.threads;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionLimitingDataSourceTest {
+
+    private ConnectionLimitingDataSource underTest;
+
+    private AutoCloseable autoCloseable;
+
+    @Mock
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        underTest = new ConnectionLimitingDataSource(dataSource, 2, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    @Test
+    void waitsForPermitAndGivesUp() throws SQLException {
+        //Given
+        underTest.getConnection();
+        underTest.getConnection();
+
+        //When
+        //Then
+        assertThat(underTest.availablePermits()).isZero();
+        assertThatThrownBy(() -> underTest.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("no connection available within PT0.05S");
+    }
+
+    @Test
+    void closeReturnsPermitOnce() throws SQLException {
+        //Given
+        Connection connection = underTest.getConnection();
+
+        //When
+        connection.close();
+        connection.close();
+
+        //Then
+        assertThat(underTest.availablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void forwardsCallsToPooledConnection() throws SQLException {
+        //Given
+        Connection pooled = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(pooled);
+
+        //When
+        try (Connection connection = underTest.getConnection()) {
+            connection.setAutoCommit(false);
+        }
+
+        //Then
+        verify(pooled).setAutoCommit(false);
+        verify(pooled).close();
+    }
+
+    @Test
+    void failedConnectionReturnsPermit() throws SQLException {
+        //Given
+        when(dataSource.getConnection()).thenThrow(new SQLException("database is down"));
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getConnection()).hasMessage("database is down");
+        assertThat(underTest.availablePermits()).isEqualTo(2);
+    }
+}